@@ -0,0 +1,28 @@
+package com.crm;
+
+import lombok.experimental.UtilityClass;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Starts the application against an in-memory H2 database populated from the main init data,
+ * so that benchmarks can exercise real repositories without a running PostgreSQL.
+ */
+@UtilityClass
+public class BenchmarkApplication {
+    public static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(CrmApplication.class)
+                .run(
+                        "--server.port=0",
+                        "--spring.docker.compose.enabled=false",
+                        "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.hibernate.ddl-auto=create",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN"
+                );
+    }
+}
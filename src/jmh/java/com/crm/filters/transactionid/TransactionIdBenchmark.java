@@ -0,0 +1,45 @@
+package com.crm.filters.transactionid;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares transaction id generation of many request threads at once: random UUIDs drawn from the shared
+ * {@code SecureRandom} against ULID-like ids with a thread local random part.
+ * Run with {@code -t} to try other thread counts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(32)
+public class TransactionIdBenchmark {
+    private UuidTransactionIdGenerator uuidGenerator;
+    private UlidTransactionIdGenerator ulidGenerator;
+
+    @Setup
+    public void setUp() {
+        uuidGenerator = new UuidTransactionIdGenerator();
+        ulidGenerator = new UlidTransactionIdGenerator();
+        ReflectionTestUtils.setField(ulidGenerator, "nodeId", 1);
+        ulidGenerator.init();
+    }
+
+    @Benchmark
+    public String uuid() {
+        return uuidGenerator.nextId();
+    }
+
+    @Benchmark
+    public String ulid() {
+        return ulidGenerator.nextId();
+    }
+}
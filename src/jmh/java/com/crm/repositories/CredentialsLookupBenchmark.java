@@ -0,0 +1,88 @@
+package com.crm.repositories;
+
+import com.crm.BenchmarkApplication;
+import com.crm.repositories.entities.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the credentials lookup of a trainer login: the former trainee-then-trainer entity lookup
+ * against the single projection query of {@link UserRepo#findCredentialsByUserName(String)}.
+ * <p>
+ * Besides throughput, the {@code statements} counter reports JDBC statements prepared per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(1)
+public class CredentialsLookupBenchmark {
+    private static final String TRAINER_USERNAME = "Alice.Johnson";
+
+    private ConfigurableApplicationContext context;
+    private TraineeRepo traineeRepo;
+    private TrainerRepo trainerRepo;
+    private UserRepo userRepo;
+    private Statistics statistics;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        traineeRepo = context.getBean(TraineeRepo.class);
+        trainerRepo = context.getBean(TrainerRepo.class);
+        userRepo = context.getBean(UserRepo.class);
+        statistics = context.getBean(EntityManagerFactory.class)
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object entityLookup(StatementCounter counter) {
+        var before = statistics.getPrepareStatementCount();
+        var user = traineeRepo.findByUserName(TRAINER_USERNAME)
+                .map(trainee -> (User) trainee)
+                .or(() -> trainerRepo.findByUserName(TRAINER_USERNAME))
+                .orElseThrow();
+        counter.statements += statistics.getPrepareStatementCount() - before;
+        return user;
+    }
+
+    @Benchmark
+    public Object projectionLookup(StatementCounter counter) {
+        var before = statistics.getPrepareStatementCount();
+        var credentials = userRepo.findCredentialsByUserName(TRAINER_USERNAME).orElseThrow();
+        counter.statements += statistics.getPrepareStatementCount() - before;
+        return credentials;
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class StatementCounter {
+        public long statements;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            statements = 0;
+        }
+    }
+}
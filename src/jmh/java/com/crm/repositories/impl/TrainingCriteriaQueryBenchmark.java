@@ -0,0 +1,95 @@
+package com.crm.repositories.impl;
+
+import com.crm.BenchmarkApplication;
+import com.crm.dtos.training.TrainingView;
+import com.crm.enums.TrainingType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the per-call cost of preparing a trainer training search: JPQL built by string concatenation and passed
+ * to {@code createQuery}, as the search did before, against the precompiled named variant of
+ * {@link TrainingCriteriaQueries}. Only query creation and binding are measured, not the execution.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(4)
+public class TrainingCriteriaQueryBenchmark {
+    private static final String TRAINER_USERNAME = "Alice.Johnson";
+    private static final LocalDate FROM_DATE = LocalDate.of(2024, 1, 1);
+
+    private ConfigurableApplicationContext context;
+    private EntityManagerFactory entityManagerFactory;
+    private TrainingCriteriaQueries queries;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        entityManagerFactory = context.getBean(EntityManagerFactory.class);
+        queries = new TrainingCriteriaQueries(
+                entityManagerFactory,
+                "Benchmark.byTrainerCriteria",
+                "t.trainer.userName = :userName",
+                "(t.trainee.firstName LIKE :partner OR t.trainee.lastName LIKE :partner)"
+        );
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object dynamicJpql(Session session) {
+        String traineeUserName = null;
+        var dynamicJpqlQuery = "SELECT new com.crm.dtos.training.TrainingView("
+                + "t.id, t.trainee.id, t.trainer.id, t.trainingName, t.trainingType, t.trainingDate, t.trainingDuration"
+                + ") FROM Training t WHERE t.trainer.userName = :trainerUsername";
+        dynamicJpqlQuery += " AND t.trainingDate >= :fromDate";
+        if (traineeUserName != null && !traineeUserName.isEmpty()) {
+            dynamicJpqlQuery += " AND (t.trainee.firstName LIKE :traineeName OR t.trainee.lastName LIKE :traineeName)";
+        }
+        dynamicJpqlQuery += " AND t.trainingType = :trainingType";
+
+        var query = session.entityManager.createQuery(dynamicJpqlQuery, TrainingView.class);
+        query.setParameter("trainerUsername", TRAINER_USERNAME);
+        query.setParameter("fromDate", FROM_DATE.atStartOfDay());
+        query.setParameter("trainingType", TrainingType.YOGA);
+        return query;
+    }
+
+    @Benchmark
+    public Object precompiledVariant(Session session) {
+        var criteria = new TrainingCriteria(TRAINER_USERNAME, FROM_DATE, null, null, TrainingType.YOGA);
+        return queries.query(session.entityManager, criteria);
+    }
+
+    @State(Scope.Thread)
+    public static class Session {
+        private EntityManager entityManager;
+
+        @Setup
+        public void open(TrainingCriteriaQueryBenchmark benchmark) {
+            entityManager = benchmark.entityManagerFactory.createEntityManager();
+        }
+
+        @TearDown
+        public void close() {
+            entityManager.close();
+        }
+    }
+}
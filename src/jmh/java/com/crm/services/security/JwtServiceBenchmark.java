@@ -0,0 +1,79 @@
+package com.crm.services.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.util.ReflectionUtils;
+
+import java.security.Key;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the per-request token handling of {@link com.crm.filters.JwtAuthenticationFilter}:
+ * the former path that parses and verifies the token three times against the cached path of {@link JwtService}.
+ * <p>
+ * Run with {@code gradle jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class JwtServiceBenchmark {
+    private static final String SECRET_KEY = "70337336763979244226452948404D635166546A576E5A7134743777217A2543";
+
+    private JwtService jwtService;
+    private Key key;
+    private UserDetails userDetails;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService();
+        setField(jwtService, "secretKey", SECRET_KEY);
+        setField(jwtService, "expirationTimeMinutes", 60L);
+        setField(jwtService, "claimsCacheMaxSize", 10_000L);
+        jwtService.init();
+
+        key = Keys.hmacShaKeyFor(Base64.getDecoder().decode(SECRET_KEY));
+        userDetails = User.withUsername("John.Doe").password("password").build();
+        token = jwtService.generateToken(userDetails, 0).getToken();
+    }
+
+    @Benchmark
+    public boolean validateWithoutCache() {
+        var username = parse(token).getSubject();
+        return username.equals(userDetails.getUsername())
+                && parse(token).getSubject().equals(userDetails.getUsername())
+                && !parse(token).getExpiration().before(new Date());
+    }
+
+    @Benchmark
+    public boolean validateWithCache() {
+        var claims = jwtService.extractAllClaims(token);
+        return claims.getSubject().equals(userDetails.getUsername()) && !claims.getExpiration().before(new Date());
+    }
+
+    private Claims parse(String jwt) {
+        return Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build()
+                .parseClaimsJws(jwt)
+                .getBody();
+    }
+
+    private static void setField(Object target, String name, Object value) {
+        var field = ReflectionUtils.findField(target.getClass(), name);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+}
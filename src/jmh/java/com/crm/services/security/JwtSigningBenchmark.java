@@ -0,0 +1,92 @@
+package com.crm.services.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.util.ReflectionUtils;
+
+import java.security.Key;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares issuing and verifying a token with a JWT builder and parser created per call (former path)
+ * against {@link JwtService}, which verifies its own tokens with a per-thread {@link javax.crypto.Mac}.
+ * The claims cache is bypassed, so every validation verifies the signature.
+ * <p>
+ * Run with {@code gradle jmhSpring -PjmhArgs='JwtSigningBenchmark -t <threads>'} for 1, 4 and 16 threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class JwtSigningBenchmark {
+    private static final String SECRET_KEY = "70337336763979244226452948404D635166546A576E5A7134743777217A2543";
+
+    private JwtService jwtService;
+    private Key key;
+    private UserDetails userDetails;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService();
+        setField(jwtService, "secretKey", SECRET_KEY);
+        setField(jwtService, "expirationTimeMinutes", 60L);
+        setField(jwtService, "claimsCacheMaxSize", 10_000L);
+        jwtService.init();
+
+        key = Keys.hmacShaKeyFor(Base64.getDecoder().decode(SECRET_KEY));
+        userDetails = User.withUsername("John.Doe").password("password").authorities("ROLE_TRAINEE").build();
+        token = jwtService.generateToken(userDetails, 0).getToken();
+    }
+
+    @Benchmark
+    public String issueWithBuilderPerCall() {
+        var now = System.currentTimeMillis();
+        return Jwts.builder()
+                .setSubject(userDetails.getUsername())
+                .claim(JwtService.ROLES_CLAIM, userDetails.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList())
+                .claim(JwtService.ACTIVE_CLAIM, userDetails.isEnabled())
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + 3_600_000))
+                .signWith(key, SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    @Benchmark
+    public String issueWithService() {
+        return jwtService.generateToken(userDetails, 0).getToken();
+    }
+
+    @Benchmark
+    public Claims validateWithParserPerCall() {
+        return Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    @Benchmark
+    public Claims validateWithService() {
+        return jwtService.parseClaims(token);
+    }
+
+    private static void setField(Object target, String name, Object value) {
+        var field = ReflectionUtils.findField(target.getClass(), name);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+}
@@ -1,37 +1,63 @@
 package com.crm.configs;
 
 import com.crm.filters.JwtAuthenticationFilter;
-import com.crm.filters.TokenFilter;
+import com.crm.filters.LoginRateLimitFilter;
+import com.crm.services.security.BestEffortUpgradeAuthenticationProvider;
+import com.crm.services.security.BoundedPasswordEncoder;
+import com.crm.services.security.PasswordHashStrengthCalibrator;
+import com.crm.services.security.PasswordHashingExecutor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
-import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 import java.util.List;
+import java.util.Map;
+
+import static org.springframework.security.web.util.matcher.AntPathRequestMatcher.antMatcher;
 
 @Configuration
 @EnableWebSecurity
 @RequiredArgsConstructor
 public class SecurityConfig {
+    private static final String BCRYPT_ID = "bcrypt";
+
+    /**
+     * Endpoints available without authentication. Requests to them skip token authentication entirely.
+     */
+    public static final RequestMatcher PUBLIC_ENDPOINTS = new OrRequestMatcher(
+            antMatcher("/swagger-ui/**"),
+            antMatcher("/v3/api-docs/**"),
+            antMatcher("/api/v1/auth/**"),
+            antMatcher(HttpMethod.POST, "/api/v1/trainer"),
+            antMatcher(HttpMethod.POST, "/api/v1/trainee")
+    );
+
     private final UserDetailsService userDetailsService;
+    private final UserDetailsPasswordService userDetailsPasswordService;
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
-    private final TokenFilter tokenFilter;
+    private final LoginRateLimitFilter loginRateLimitFilter;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final PasswordHashStrengthCalibrator strengthCalibrator;
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
@@ -39,19 +65,15 @@ public class SecurityConfig {
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(auth -> auth
-                        .requestMatchers("/swagger-ui/**", "/v3/api-docs/**")
+                        .requestMatchers(PUBLIC_ENDPOINTS)
                         .permitAll()
                         .requestMatchers("/actuator/**")
                         .authenticated()
-                        .requestMatchers("/api/v1/auth/**")
-                        .permitAll()
-                        .requestMatchers(HttpMethod.POST, "/api/v1/trainer", "/api/v1/trainee")
-                        .permitAll()
                         .requestMatchers("/api/v1/trainer/**", "/api/v1/trainee/**", "/api/v1/training/**")
                         .authenticated()
                 )
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
-                .addFilterBefore(tokenFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterBefore(loginRateLimitFilter, UsernamePasswordAuthenticationFilter.class)
                 .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
@@ -59,9 +81,10 @@ public class SecurityConfig {
 
     @Bean
     public AuthenticationProvider authenticationProvider() {
-        var authProvider = new DaoAuthenticationProvider();
+        var authProvider = new BestEffortUpgradeAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
         authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setUserDetailsPasswordService(userDetailsPasswordService);
         return authProvider;
     }
 
@@ -70,9 +93,17 @@ public class SecurityConfig {
         return authenticationConfiguration.getAuthenticationManager();
     }
 
+    /**
+     * New hashes are stored as {@code {bcrypt}<hash>} with the calibrated strength, hashes stored without an id
+     * are verified as BCrypt. Hashes with an outdated format or strength are upgraded on the next successful login.
+     */
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        var bcrypt = new BCryptPasswordEncoder(strengthCalibrator.getStrength());
+        var delegating = new DelegatingPasswordEncoder(BCRYPT_ID, Map.of(BCRYPT_ID, bcrypt));
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+
+        return new BoundedPasswordEncoder(delegating, passwordHashingExecutor);
     }
 
     @Bean
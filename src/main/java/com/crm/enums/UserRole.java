@@ -0,0 +1,13 @@
+package com.crm.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum UserRole {
+    TRAINEE("ROLE_TRAINEE"),
+    TRAINER("ROLE_TRAINER");
+
+    private final String authority;
+}
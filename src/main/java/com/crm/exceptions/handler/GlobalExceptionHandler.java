@@ -1,5 +1,7 @@
 package com.crm.exceptions.handler;
 
+import com.crm.exceptions.InvalidRefreshTokenException;
+import com.crm.exceptions.PasswordHashingRejectedException;
 import com.crm.exceptions.PasswordNotMatchException;
 import com.crm.exceptions.UserBlockedException;
 import com.crm.exceptions.UserNameChangedException;
@@ -11,6 +13,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.coyote.BadRequestException;
 import org.postgresql.util.PSQLException;
 import org.slf4j.MDC;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -214,4 +217,23 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest()
                 .body("Required request header 'Authorization'");
     }
+
+    @ExceptionHandler(PasswordHashingRejectedException.class)
+    public ResponseEntity<String> handlePasswordHashingRejectedException(PasswordHashingRejectedException ex) {
+        var transactionId = MDC.get("transactionId");
+
+        log.warn("[{}] Password hashing rejected: {}", transactionId, ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ex.getMessage());
+    }
+
+    @ExceptionHandler(InvalidRefreshTokenException.class)
+    public ResponseEntity<String> handleInvalidRefreshTokenException(InvalidRefreshTokenException ex) {
+        var transactionId = MDC.get("transactionId");
+
+        log.warn("[{}] Refresh token rejected: {}", transactionId, ex.getMessage());
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body("Authentication failed: " + ex.getMessage());
+    }
 }
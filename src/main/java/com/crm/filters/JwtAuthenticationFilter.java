@@ -1,67 +1,177 @@
 package com.crm.filters;
 
+import com.crm.configs.SecurityConfig;
+import com.crm.metrics.timing.RequestTiming;
 import com.crm.services.security.JwtService;
+import com.crm.services.security.TokenEpochService;
+import com.crm.services.security.TokenRevocationStore;
+import com.crm.utils.TokenDigests;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Authenticates requests carrying a bearer token in a single pass.
+ * <p>
+ * The header is read once and the token is checked in the order of increasing cost: the revocation check needs only
+ * the token digest, which is also the key of verified claims, so the signature and expiry are verified only for a
+ * token seen for the first time. The epoch check and the principal resolution then work on the same claims.
+ * Public endpoints are not filtered at all.
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
+    private static final String BEARER_PREFIX = "Bearer ";
+    private static final String STAGE_TIMER = "security.authentication.stage";
+
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final TokenRevocationStore tokenRevocationStore;
+    private final TokenEpochService tokenEpochService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${spring.security.jwt.stateless:true}")
+    private boolean stateless;
+
+    private Timer revocationTimer;
+    private Timer claimsTimer;
+    private Timer epochTimer;
+    private Timer principalTimer;
+
+    @PostConstruct
+    public void init() {
+        revocationTimer = meterRegistry.timer(STAGE_TIMER, "stage", "revocation");
+        claimsTimer = meterRegistry.timer(STAGE_TIMER, "stage", "claims");
+        epochTimer = meterRegistry.timer(STAGE_TIMER, "stage", "epoch");
+        principalTimer = meterRegistry.timer(STAGE_TIMER, "stage", "principal");
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return SecurityConfig.PUBLIC_ENDPOINTS.matches(request);
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
             throws ServletException, IOException {
-        var authHeader = request.getHeader("Authorization");
+        var authHeader = request.getHeader(HttpHeaders.AUTHORIZATION);
 
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+        if (authHeader == null || !authHeader.startsWith(BEARER_PREFIX)
+                || SecurityContextHolder.getContext().getAuthentication() != null) {
             chain.doFilter(request, response);
             return;
         }
 
-        var token = authHeader.substring(7);
-        try {
-            var username = jwtService.extractUsername(token);
+        var authStart = System.nanoTime();
+        var authenticated = authenticate(authHeader.substring(BEARER_PREFIX.length()), response);
+        RequestTiming.of(request).addAuth(System.nanoTime() - authStart);
+        if (authenticated) {
+            chain.doFilter(request, response);
+        }
+    }
 
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                var userDetails = userDetailsService.loadUserByUsername(username);
+    /**
+     * @return false if the request was rejected
+     */
+    private boolean authenticate(String token, HttpServletResponse response) throws IOException {
+        try {
+            var start = System.nanoTime();
+            var digest = TokenDigests.digest(token);
+            var revoked = tokenRevocationStore.isRevoked(digest);
+            start = record(revocationTimer, start);
+            if (revoked) {
+                reject(response, "Token is blacklisted");
+                return false;
+            }
 
-                if (jwtService.validateToken(token, userDetails)) {
-                    var authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails, null, userDetails.getAuthorities()
-                    );
+            var claims = jwtService.extractAllClaims(token, TokenDigests.fingerprint(digest));
+            var username = claims.getSubject();
+            start = record(claimsTimer, start);
+            if (username == null) {
+                reject(response, "JWT token has no subject");
+                return false;
+            }
 
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
-                }
+            var revokedByEpoch = tokenEpochService.isRevoked(username, jwtService.extractEpoch(claims));
+            start = record(epochTimer, start);
+            if (revokedByEpoch) {
+                log.warn("JWT of user={} was issued before its tokens were revoked", username);
+                reject(response, "JWT token has been revoked");
+                return false;
             }
 
-            chain.doFilter(request, response);
+            var userDetails = resolveUserDetails(claims, username);
+            record(principalTimer, start);
+            if (userDetails.isEnabled()) {
+                var authToken = new UsernamePasswordAuthenticationToken(
+                        userDetails, null, userDetails.getAuthorities()
+                );
+
+                SecurityContextHolder.getContext().setAuthentication(authToken);
+            }
         } catch (ExpiredJwtException ex) {
-            handleExpiredJwtException(response, ex);
+            log.warn("JWT expired: {}", ex.getMessage());
+            reject(response, "JWT token has expired: " + ex.getMessage());
+            return false;
+        } catch (JwtException ex) {
+            log.warn("JWT is not valid: {}", ex.getMessage());
+            reject(response, "JWT token is not valid");
+            return false;
+        } catch (UsernameNotFoundException ex) {
+            log.warn("Owner of JWT was not found: {}", ex.getMessage());
+        }
+
+        return true;
+    }
+
+    /**
+     * In stateless mode the principal is restored from signed claims of the token, DB is queried only
+     * when the token carries no principal claims. Claims of a token issued before a security relevant change
+     * of its owner are never used, such tokens are revoked by the token epoch.
+     */
+    private UserDetails resolveUserDetails(Claims claims, String username) {
+        if (stateless) {
+            var fromClaims = jwtService.extractUserDetails(claims);
+            if (fromClaims.isPresent()) {
+                return fromClaims.get();
+            }
         }
+
+        return userDetailsService.loadUserByUsername(username);
     }
 
-    private void handleExpiredJwtException(HttpServletResponse response, ExpiredJwtException ex) throws IOException {
-        log.warn("JWT expired: {}", ex.getMessage());
+    private static long record(Timer timer, long start) {
+        var end = System.nanoTime();
+        timer.record(end - start, TimeUnit.NANOSECONDS);
+        return end;
+    }
 
+    private static void reject(HttpServletResponse response, String message) throws IOException {
         response.setStatus(HttpStatus.UNAUTHORIZED.value());
         response.setContentType("application/json");
-        response.getWriter().write("{\"error\": \"JWT token has expired: " + ex.getMessage() + "\"}");
+        response.getWriter().write("{\"error\": \"" + message + "\"}");
     }
 }
@@ -0,0 +1,154 @@
+package com.crm.filters;
+
+import com.crm.metrics.timing.RequestTiming;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the phase breakdown of every request into the {@code http.server.requests.phases} timer, tagged with
+ * route, method, status and phase, and reports it to the client in the {@code Server-Timing} header.
+ * <p>
+ * Time the request waited for pooled DB connections and held them is recorded per route into the
+ * {@code db.connections.acquire} and {@code db.connections.hold} timers.
+ * <p>
+ * The body is not buffered: the header is added right before the response is committed, which for a serialized
+ * body is the flush after the serialization, so the header covers the phases up to the commit while the timers
+ * cover the whole request. SLO buckets and percentiles of the timer come from {@code management.metrics.distribution.*}, like the ones
+ * of {@code http.server.requests}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+@RequiredArgsConstructor
+public class RequestTimingFilter extends OncePerRequestFilter {
+    public static final String SERVER_TIMING = "Server-Timing";
+    private static final String PHASE_TIMER = "http.server.requests.phases";
+    private static final String CONNECTION_ACQUIRE_TIMER = "db.connections.acquire";
+    private static final String CONNECTION_HOLD_TIMER = "db.connections.hold";
+    private static final String UNKNOWN_ROUTE = "UNKNOWN";
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${management.server-timing.enabled:true}")
+    private boolean serverTimingEnabled;
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        var timing = RequestTiming.of(request);
+        var responseToUse = response;
+        if (serverTimingEnabled && !isAsyncDispatch(request)
+                && WebUtils.getNativeResponse(response, ServerTimingResponseWrapper.class) == null) {
+            responseToUse = new ServerTimingResponseWrapper(response, timing);
+        }
+
+        RequestTiming.bind(timing);
+        try {
+            filterChain.doFilter(request, responseToUse);
+        } finally {
+            RequestTiming.unbind();
+            if (!isAsyncStarted(request)) {
+                complete(request, responseToUse, timing);
+            }
+        }
+    }
+
+    private void complete(HttpServletRequest request, HttpServletResponse response, RequestTiming timing) {
+        var now = System.nanoTime();
+        var phases = timing.phases(now);
+        var route = route(request);
+        var status = String.valueOf(response.getStatus());
+        phases.forEach((phase, nanos) -> Timer.builder(PHASE_TIMER)
+                .tag("uri", route)
+                .tag("method", request.getMethod())
+                .tag("status", status)
+                .tag("phase", phase.tag())
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS));
+        if (timing.connectionAcquisitions() > 0) {
+            record(CONNECTION_ACQUIRE_TIMER, route, request, timing.connectionAcquisitionNanos());
+            record(CONNECTION_HOLD_TIMER, route, request, timing.connectionHoldNanos());
+        }
+
+        var wrapper = WebUtils.getNativeResponse(response, ServerTimingResponseWrapper.class);
+        if (wrapper != null) {
+            wrapper.complete(phases, timing.totalNanos(now));
+        }
+    }
+
+    private void record(String timer, String route, HttpServletRequest request, long nanos) {
+        Timer.builder(timer)
+                .tag("uri", route)
+                .tag("method", request.getMethod())
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static String route(HttpServletRequest request) {
+        var pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : UNKNOWN_ROUTE;
+    }
+
+    private static String serverTiming(Map<RequestTiming.Phase, Long> phases, long totalNanos) {
+        var header = new StringBuilder(96);
+        phases.forEach((phase, nanos) -> appendMetric(header, phase.tag(), nanos));
+        appendMetric(header, "total", totalNanos);
+        return header.toString();
+    }
+
+    private static void appendMetric(StringBuilder header, String name, long nanos) {
+        if (!header.isEmpty()) {
+            header.append(", ");
+        }
+        header.append(name).append(";dur=").append(TimeUnit.NANOSECONDS.toMicros(nanos) / 1000.0);
+    }
+
+    /**
+     * Adds the {@code Server-Timing} header once, either right before the response is committed or, for a response
+     * still not committed, when the request completes.
+     */
+    private static class ServerTimingResponseWrapper extends OnCommittedResponseWrapper {
+        private final RequestTiming timing;
+
+        ServerTimingResponseWrapper(HttpServletResponse response, RequestTiming timing) {
+            super(response);
+            this.timing = timing;
+        }
+
+        @Override
+        protected void onResponseCommitted() {
+            var now = System.nanoTime();
+            setHeader(SERVER_TIMING, serverTiming(timing.phases(now), timing.totalNanos(now)));
+        }
+
+        void complete(Map<RequestTiming.Phase, Long> phases, long totalNanos) {
+            if (isDisableOnResponseCommitted() || isCommitted()) {
+                return;
+            }
+
+            disableOnResponseCommitted();
+            setHeader(SERVER_TIMING, serverTiming(phases, totalNanos));
+        }
+    }
+}
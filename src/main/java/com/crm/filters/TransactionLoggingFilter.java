@@ -1,43 +1,98 @@
 package com.crm.filters;
 
+import com.crm.filters.accesslog.AccessLogRecord;
+import com.crm.filters.accesslog.AccessLogWriter;
+import com.crm.filters.transactionid.TransactionIdGenerator;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.extern.slf4j.Slf4j;
+import lombok.RequiredArgsConstructor;
 import org.slf4j.MDC;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.UUID;
 
-@Slf4j
+/**
+ * Tags every request with a transaction id, taken from the {@code transactionId} header or created by
+ * {@link TransactionIdGenerator}, and hands one access log record per request to {@link AccessLogWriter}.
+ * The record of an asynchronous request is written when its response is completed.
+ * <p>
+ * The filter runs ahead of the security filter chain, so requests rejected there are tagged and logged as well.
+ */
 @Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@RequiredArgsConstructor
 public class TransactionLoggingFilter extends OncePerRequestFilter {
     private static final String TRANSACTION_ID = "transactionId";
 
+    private final AccessLogWriter accessLogWriter;
+    private final TransactionIdGenerator transactionIdGenerator;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
-        try {
-            var transactionId = request.getHeader(TRANSACTION_ID);
-            if (transactionId == null || transactionId.isEmpty()) {
-                transactionId = UUID.randomUUID().toString();
-            }
+        var startNanos = System.nanoTime();
+        var transactionId = request.getHeader(TRANSACTION_ID);
+        if (transactionId == null || transactionId.isEmpty()) {
+            transactionId = transactionIdGenerator.nextId();
+        }
 
+        var failed = true;
+        try {
             MDC.put(TRANSACTION_ID, transactionId);
             request.setAttribute(TRANSACTION_ID, transactionId);
             response.setHeader(TRANSACTION_ID, transactionId);
-            log.info("➡️ Incoming request: [{}] {} | TransactionId: {}",
-                    request.getMethod(), request.getRequestURI(), transactionId);
 
             filterChain.doFilter(request, response);
-            log.info("⬅️ Response: [{}] {} | Status: {} | TransactionId: {}",
-                    request.getMethod(), request.getRequestURI(), response.getStatus(), transactionId);
+            failed = false;
         } finally {
+            if (!failed && request.isAsyncStarted()) {
+                writeOnCompletion(request, response, transactionId, startNanos);
+            } else {
+                write(request, failed ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : response.getStatus(),
+                        transactionId, startNanos);
+            }
             MDC.clear();
         }
     }
+
+    private void writeOnCompletion(HttpServletRequest request, HttpServletResponse response,
+                                   String transactionId, long startNanos) {
+        request.getAsyncContext().addListener(new AsyncListener() {
+            @Override
+            public void onComplete(AsyncEvent event) {
+                write(request, response.getStatus(), transactionId, startNanos);
+            }
+
+            @Override
+            public void onTimeout(AsyncEvent event) {
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+        });
+    }
+
+    private void write(HttpServletRequest request, int status, String transactionId, long startNanos) {
+        accessLogWriter.write(new AccessLogRecord(
+                System.currentTimeMillis(),
+                request.getMethod(),
+                request.getRequestURI(),
+                status,
+                System.nanoTime() - startNanos,
+                transactionId
+        ));
+    }
 }
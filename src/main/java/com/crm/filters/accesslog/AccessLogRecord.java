@@ -0,0 +1,21 @@
+package com.crm.filters.accesslog;
+
+/**
+ * One handled request, as it is written to the access log.
+ *
+ * @param completedAtMillis when the response was completed, epoch millis
+ * @param method            HTTP method
+ * @param uri               request URI without query string
+ * @param status            response status
+ * @param durationNanos     time from the start of the filter chain to the completed response
+ * @param transactionId     transaction id of the request
+ */
+public record AccessLogRecord(
+        long completedAtMillis,
+        String method,
+        String uri,
+        int status,
+        long durationNanos,
+        String transactionId
+) {
+}
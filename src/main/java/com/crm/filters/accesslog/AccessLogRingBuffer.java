@@ -0,0 +1,85 @@
+package com.crm.filters.accesslog;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free queue of access log records with many producers and a single consumer.
+ * <p>
+ * Every slot carries a sequence number: a producer claims the next slot with one CAS on the tail and publishes the
+ * record by moving the slot sequence forward, the consumer frees the slot by moving it one lap further.
+ * A full buffer rejects the record instead of waiting, request threads never block on it.
+ */
+class AccessLogRingBuffer {
+    private final AtomicReferenceArray<AccessLogRecord> slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    /**
+     * @param capacity the minimal capacity, rounded up to a power of two
+     */
+    AccessLogRingBuffer(int capacity) {
+        var size = capacity <= 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        slots = new AtomicReferenceArray<>(size);
+        sequences = new AtomicLongArray(size);
+        mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Adds the record, may be called by any thread.
+     *
+     * @return false if the buffer is full
+     */
+    boolean offer(AccessLogRecord record) {
+        var position = tail.get();
+        while (true) {
+            var index = (int) (position & mask);
+            var lag = sequences.get(index) - position;
+            if (lag == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.lazySet(index, record);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (lag < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Takes the oldest record, must be called by one thread only.
+     *
+     * @return the record or null if the buffer is empty
+     */
+    AccessLogRecord poll() {
+        var position = head;
+        var index = (int) (position & mask);
+        if (sequences.get(index) != position + 1) {
+            return null;
+        }
+
+        var record = slots.get(index);
+        slots.lazySet(index, null);
+        sequences.set(index, position + mask + 1);
+        head = position + 1;
+        return record;
+    }
+
+    int size() {
+        return (int) Math.max(tail.get() - head, 0);
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+}
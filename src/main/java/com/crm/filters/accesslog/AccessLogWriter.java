@@ -0,0 +1,135 @@
+package com.crm.filters.accesslog;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes one line per request to the {@code access} logger from a background thread.
+ * <p>
+ * Request threads only put a record into a lock-free ring buffer; the writer thread takes up to
+ * {@code logging.access.batch-size} records per pass and sleeps while the buffer is empty. Successful responses are
+ * sampled with {@code logging.access.success-sample-rate}, error responses are always written. When the writer falls
+ * behind, records that do not fit into the buffer are dropped and counted.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class AccessLogWriter {
+    private static final Logger ACCESS_LOG = LoggerFactory.getLogger("access");
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${logging.access.buffer-size:8192}")
+    private int bufferSize;
+    @Value("${logging.access.batch-size:256}")
+    private int batchSize;
+    @Value("${logging.access.success-sample-rate:1.0}")
+    private double successSampleRate;
+    @Value("${logging.access.idle-wait-ms:20}")
+    private long idleWaitMillis;
+
+    private AccessLogRingBuffer buffer;
+    private Counter droppedCounter;
+    private Counter writtenCounter;
+    private Thread writerThread;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void init() {
+        buffer = new AccessLogRingBuffer(bufferSize);
+        meterRegistry.gauge("access.log.pending", buffer, AccessLogRingBuffer::size);
+        droppedCounter = meterRegistry.counter("access.log.dropped");
+        writtenCounter = meterRegistry.counter("access.log.written");
+
+        var threadFactory = new CustomizableThreadFactory("access-log-");
+        threadFactory.setDaemon(true);
+        running = true;
+        writerThread = threadFactory.newThread(this::writeLoop);
+        writerThread.start();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writerThread);
+        writerThread.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    /**
+     * Queues the record for writing, never blocks.
+     */
+    public void write(AccessLogRecord record) {
+        if (!isSampled(record.status())) {
+            return;
+        }
+
+        if (!buffer.offer(record)) {
+            droppedCounter.increment();
+        }
+    }
+
+    boolean isSampled(int status) {
+        if (status >= 400 || successSampleRate >= 1) {
+            return true;
+        }
+
+        return successSampleRate > 0 && ThreadLocalRandom.current().nextDouble() < successSampleRate;
+    }
+
+    private void writeLoop() {
+        var idleWaitNanos = TimeUnit.MILLISECONDS.toNanos(idleWaitMillis);
+        var line = new StringBuilder(256);
+        while (running) {
+            try {
+                if (writeBatch(line) == 0) {
+                    LockSupport.parkNanos(idleWaitNanos);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Access log batch was not written: {}", e.getMessage());
+            }
+        }
+
+        while (writeBatch(line) > 0) {
+            // writes what is left on shutdown
+        }
+    }
+
+    private int writeBatch(StringBuilder line) {
+        var written = 0;
+        AccessLogRecord record;
+        while (written < batchSize && (record = buffer.poll()) != null) {
+            line.setLength(0);
+            format(record, line);
+            ACCESS_LOG.info(line.toString());
+            written++;
+        }
+
+        if (written > 0) {
+            writtenCounter.increment(written);
+        }
+        return written;
+    }
+
+    static void format(AccessLogRecord record, StringBuilder line) {
+        line.append("time=").append(Instant.ofEpochMilli(record.completedAtMillis()))
+                .append(" transactionId=").append(record.transactionId())
+                .append(" method=").append(record.method())
+                .append(" uri=").append(record.uri())
+                .append(" status=").append(record.status())
+                .append(" durationMs=").append(TimeUnit.NANOSECONDS.toMicros(record.durationNanos()) / 1000.0);
+    }
+}
@@ -0,0 +1,15 @@
+package com.crm.filters.transactionid;
+
+/**
+ * Creates transaction ids for requests that come without a {@code transactionId} header.
+ * The implementation is chosen with {@code logging.transaction-id.generator}.
+ */
+public interface TransactionIdGenerator {
+    /**
+     * Ids are meant to tell requests apart in logs: a collision is improbable, but is ruled out only as far as the
+     * implementation says so.
+     *
+     * @return a new id; may be called by many threads at once
+     */
+    String nextId();
+}
@@ -0,0 +1,65 @@
+package com.crm.filters.transactionid;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * ULID-like ids: 26 Crockford base32 characters encoding 48 bits of epoch millis, 16 bits of node id and 64 random
+ * bits. Ids sort by creation time to the millisecond. Ids of different nodes are ruled out to collide only when every
+ * node is assigned its own {@code logging.transaction-id.node-id}. The default node id is random, so two nodes may
+ * draw the same one and are then told apart by the random bits alone, like ids of one node are.
+ * <p>
+ * The random part comes from {@link ThreadLocalRandom}, so threads share no state and never wait for each other.
+ * The ids are not secret and must not be used as tokens.
+ */
+@Component
+@ConditionalOnProperty(name = "logging.transaction-id.generator", havingValue = "ulid", matchIfMissing = true)
+public class UlidTransactionIdGenerator implements TransactionIdGenerator {
+    static final int LENGTH = 26;
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+    /**
+     * Node id from 0 to 65535, a random one is taken on start when it is negative.
+     */
+    @Value("${logging.transaction-id.node-id:-1}")
+    private int nodeId;
+
+    @PostConstruct
+    public void init() {
+        if (nodeId < 0) {
+            nodeId = new SecureRandom().nextInt(1 << 16);
+        }
+        if (nodeId >= 1 << 16) {
+            throw new IllegalStateException("Transaction id node id must be less than 65536, but was " + nodeId);
+        }
+    }
+
+    @Override
+    public String nextId() {
+        return encode(System.currentTimeMillis(), nodeId, ThreadLocalRandom.current().nextLong());
+    }
+
+    static String encode(long timeMillis, int node, long random) {
+        var high = (timeMillis << 16) | (node & 0xFFFF);
+        var chars = new char[LENGTH];
+        for (int i = LENGTH - 1, shift = 0; i >= 0; i--, shift += 5) {
+            chars[i] = ALPHABET[fiveBits(high, random, shift)];
+        }
+        return new String(chars);
+    }
+
+    private static int fiveBits(long high, long low, int shift) {
+        if (shift >= 64) {
+            return (int) (high >>> (shift - 64)) & 31;
+        }
+        if (shift > 59) {
+            return (int) ((low >>> shift) | (high << (64 - shift))) & 31;
+        }
+        return (int) (low >>> shift) & 31;
+    }
+}
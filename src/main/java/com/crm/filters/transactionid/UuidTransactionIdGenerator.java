@@ -0,0 +1,20 @@
+package com.crm.filters.transactionid;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Random UUIDs. Every id is drawn from the shared {@code SecureRandom}, which becomes contended when many request
+ * threads ask for ids at once.
+ */
+@Component
+@ConditionalOnProperty(name = "logging.transaction-id.generator", havingValue = "uuid")
+public class UuidTransactionIdGenerator implements TransactionIdGenerator {
+
+    @Override
+    public String nextId() {
+        return UUID.randomUUID().toString();
+    }
+}
@@ -0,0 +1,31 @@
+package com.crm.indicators;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+
+/**
+ * Health indicator answering from a snapshot. The snapshot is refreshed in background by
+ * {@link HealthSnapshotRefresher}, so that health probes never wait for a check and never load the DB.
+ */
+public abstract class CachedHealthIndicator implements HealthIndicator {
+    private volatile Health snapshot = Health.unknown().withDetail("message", "Not checked yet").build();
+
+    @Override
+    public Health health() {
+        return snapshot;
+    }
+
+    /**
+     * Runs the actual check, called on a health check thread.
+     */
+    protected abstract Health check();
+
+    /**
+     * @return how long the check may take before it is reported as down
+     */
+    protected abstract long timeoutMillis();
+
+    void update(Health health) {
+        snapshot = health;
+    }
+}
@@ -1,26 +1,109 @@
 package com.crm.indicators;
 
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.pool.HikariPool;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.actuate.health.Health;
-import org.springframework.boot.actuate.health.HealthIndicator;
-import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.boot.actuate.health.Status;
 import org.springframework.stereotype.Component;
 
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+/**
+ * Reports the DB as {@code DEGRADED} when the connection pool is saturated: threads are waiting for a connection
+ * or the share of active connections reached {@code management.health.database.saturation-threshold}.
+ * <p>
+ * Reachability is checked with {@code SELECT 1} only while the pool has room, so that the check never queues
+ * behind requests for a connection. The pool may fill up right after it was inspected, so the probe waits for a
+ * connection and for the query at most {@code management.health.database.probe-timeout-ms} instead of the
+ * connection timeout of the pool.
+ */
 @Component
 @RequiredArgsConstructor
-public class DatabaseHealthIndicator implements HealthIndicator {
-    private final JdbcTemplate jdbcTemplate;
+public class DatabaseHealthIndicator extends CachedHealthIndicator {
+    public static final Status DEGRADED = new Status("DEGRADED", "Connection pool is saturated");
+
+    private final DataSource dataSource;
+
+    @Value("${management.health.snapshot.timeout-ms.database:1000}")
+    private long timeoutMillis;
+    @Value("${management.health.database.saturation-threshold:0.9}")
+    private double saturationThreshold;
+    @Value("${management.health.database.probe-timeout-ms:500}")
+    private long probeTimeoutMillis;
+
+    @Override
+    protected Health check() {
+        var pool = dataSource instanceof HikariDataSource hikari ? hikari : null;
+        var poolBean = pool != null ? pool.getHikariPoolMXBean() : null;
+        if (poolBean == null) {
+            return checkReachability(Health.up(), null);
+        }
+
+        int active = poolBean.getActiveConnections();
+        int pending = poolBean.getThreadsAwaitingConnection();
+        int max = pool.getMaximumPoolSize();
+        var builder = Health.up()
+                .withDetail("active", active)
+                .withDetail("idle", poolBean.getIdleConnections())
+                .withDetail("total", poolBean.getTotalConnections())
+                .withDetail("max", max)
+                .withDetail("pending", pending);
+
+        if (pending > 0 || active >= max) {
+            return builder.status(DEGRADED)
+                    .withDetail("Database", "Pool is exhausted, reachability was not checked")
+                    .build();
+        }
+
+        var health = checkReachability(builder, poolBean);
+        if (Status.UP.equals(health.getStatus()) && active >= saturationThreshold * max) {
+            return Health.status(DEGRADED).withDetails(health.getDetails()).build();
+        }
+        return health;
+    }
 
     @Override
-    public Health health() {
-        try {
-            var result = jdbcTemplate.queryForObject("SELECT 1", Integer.class);
-            if (result == 1) {
-                return Health.up().withDetail("Database", "Available").build();
+    protected long timeoutMillis() {
+        return timeoutMillis;
+    }
+
+    private Health checkReachability(Health.Builder builder, HikariPoolMXBean poolBean) {
+        try (var connection = probeConnection(poolBean);
+             var statement = connection.createStatement()) {
+            statement.setQueryTimeout((int) Math.max(1, (probeTimeoutMillis + 999) / 1000));
+            try (var resultSet = statement.executeQuery("SELECT 1")) {
+                if (resultSet.next() && resultSet.getInt(1) == 1) {
+                    return builder.withDetail("Database", "Available").build();
+                }
             }
-            return Health.down().withDetail("Database", "Unexpected response").build();
+            return builder.down().withDetail("Database", "Unexpected response").build();
+        } catch (SQLTransientConnectionException e) {
+            if (e.getCause() == null) {
+                return builder.status(DEGRADED)
+                        .withDetail("Database", "No connection within " + probeTimeoutMillis + " ms")
+                        .build();
+            }
+            return builder.down().withDetail("Database", "Error: " + e.getMessage()).build();
         } catch (Exception e) {
-            return Health.down().withDetail("Database", "Error: " + e.getMessage()).build();
+            return builder.down().withDetail("Database", "Error: " + e.getMessage()).build();
+        }
+    }
+
+    /**
+     * Borrows a connection waiting at most the probe timeout. Hikari times out with a
+     * {@link SQLTransientConnectionException} carrying no cause when the pool is busy, and with the last
+     * connection failure as the cause when the DB can not be reached.
+     */
+    private Connection probeConnection(HikariPoolMXBean poolBean) throws SQLException {
+        if (poolBean instanceof HikariPool hikariPool) {
+            return hikariPool.getConnection(probeTimeoutMillis);
         }
+        return dataSource.getConnection();
     }
 }
@@ -1,17 +1,20 @@
 package com.crm.indicators;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.actuate.health.Health;
-import org.springframework.boot.actuate.health.HealthIndicator;
 import org.springframework.stereotype.Component;
 
 import java.io.File;
 
 @Component
-public class DiskSpaceHealthIndicator implements HealthIndicator {
+public class DiskSpaceHealthIndicator extends CachedHealthIndicator {
     private static final long THRESHOLD_BYTES = 100 * 1024 * 1024;
 
+    @Value("${management.health.snapshot.timeout-ms.disk-space:500}")
+    private long timeoutMillis;
+
     @Override
-    public Health health() {
+    protected Health check() {
         var diskPartition = new File("/");
         long freeSpace = diskPartition.getFreeSpace();
 
@@ -21,4 +24,9 @@ public class DiskSpaceHealthIndicator implements HealthIndicator {
             return Health.down().withDetail("Free Space (MB)", freeSpace / (1024 * 1024)).build();
         }
     }
+
+    @Override
+    protected long timeoutMillis() {
+        return timeoutMillis;
+    }
 }
@@ -1,22 +1,28 @@
 package com.crm.indicators;
 
-import com.crm.repositories.TraineeRepo;
-import com.crm.repositories.TrainerRepo;
+import com.crm.metrics.EntityCounters;
+import com.crm.repositories.entities.Trainee;
+import com.crm.repositories.entities.Trainer;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.actuate.health.Health;
-import org.springframework.boot.actuate.health.HealthIndicator;
 import org.springframework.stereotype.Component;
 
+/**
+ * Reads the entity counters kept for the count gauges instead of counting rows in DB.
+ */
 @Component
 @RequiredArgsConstructor
-public class GymDataHealthIndicator implements HealthIndicator {
-    private final TraineeRepo traineeRepository;
-    private final TrainerRepo trainerRepository;
+public class GymDataHealthIndicator extends CachedHealthIndicator {
+    private final EntityCounters entityCounters;
+
+    @Value("${management.health.snapshot.timeout-ms.gym-data:500}")
+    private long timeoutMillis;
 
     @Override
-    public Health health() {
-        long trainees = traineeRepository.count();
-        long trainers = trainerRepository.count();
+    protected Health check() {
+        long trainees = entityCounters.counter(Trainee.class).get();
+        long trainers = entityCounters.counter(Trainer.class).get();
 
         if (trainees > 0 && trainers > 0) {
             return Health.up().withDetail("trainees", trainees).withDetail("trainers", trainers).build();
@@ -28,4 +34,9 @@ public class GymDataHealthIndicator implements HealthIndicator {
                     .build();
         }
     }
-}
\ No newline at end of file
+
+    @Override
+    protected long timeoutMillis() {
+        return timeoutMillis;
+    }
+}
@@ -0,0 +1,79 @@
+package com.crm.indicators;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Refreshes snapshots of all {@link CachedHealthIndicator}s every {@code management.health.snapshot.refresh-interval-ms}.
+ * <p>
+ * Checks run in parallel, each one on its own thread, and the scheduler thread does not wait for them. A check that
+ * does not finish within its timeout is reported as down; it is not started again until the hung run returns,
+ * so that a slow DB can not use up the threads.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class HealthSnapshotRefresher {
+    private final List<CachedHealthIndicator> indicators;
+
+    private final Map<CachedHealthIndicator, CompletableFuture<Health>> running = new ConcurrentHashMap<>();
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        var threadFactory = new CustomizableThreadFactory("health-check-");
+        threadFactory.setDaemon(true);
+        executor = Executors.newFixedThreadPool(Math.max(indicators.size(), 1), threadFactory);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Scheduled(fixedDelayString = "${management.health.snapshot.refresh-interval-ms:10000}")
+    public void refresh() {
+        indicators.forEach(this::refresh);
+    }
+
+    private void refresh(CachedHealthIndicator indicator) {
+        var previous = running.get(indicator);
+        if (previous != null && !previous.isDone()) {
+            log.warn("Health check {} is still running, it is not started again", indicator.getClass().getSimpleName());
+            return;
+        }
+
+        var check = CompletableFuture.supplyAsync(indicator::check, executor);
+        running.put(indicator, check);
+        check.copy()
+                .completeOnTimeout(timedOut(indicator), indicator.timeoutMillis(), TimeUnit.MILLISECONDS)
+                .exceptionally(HealthSnapshotRefresher::failed)
+                .thenAccept(indicator::update);
+    }
+
+    private static Health timedOut(CachedHealthIndicator indicator) {
+        return Health.down()
+                .withDetail("error", "Health check timed out after " + indicator.timeoutMillis() + " ms")
+                .build();
+    }
+
+    private static Health failed(Throwable e) {
+        var cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        return Health.down().withException(cause).build();
+    }
+}
@@ -0,0 +1,45 @@
+package com.crm.metrics;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Counts persisted and removed entities in {@link EntityCounters}. Changes are counted once their transaction
+ * commits, so that rolled back inserts are not counted. Bulk JPQL deletes bypass the listener, they are caught up
+ * by the reconciliation of {@link GymMetrics}.
+ * <p>
+ * Created by Hibernate through the Spring bean container.
+ */
+@RequiredArgsConstructor
+public class EntityCountListener {
+    private final EntityCounters entityCounters;
+
+    @PostPersist
+    public void persisted(Object entity) {
+        addAfterCommit(entity, 1);
+    }
+
+    @PostRemove
+    public void removed(Object entity) {
+        addAfterCommit(entity, -1);
+    }
+
+    private void addAfterCommit(Object entity, long delta) {
+        var entityType = Hibernate.getClass(entity);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            entityCounters.add(entityType, delta);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                entityCounters.add(entityType, delta);
+            }
+        });
+    }
+}
@@ -0,0 +1,27 @@
+package com.crm.metrics;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory row counts per entity type, kept up to date by {@link EntityCountListener} and reconciled with the DB
+ * by {@link GymMetrics}.
+ */
+@Component
+public class EntityCounters {
+    private final Map<Class<?>, AtomicLong> counters = new ConcurrentHashMap<>();
+
+    /**
+     * @return the live counter of the entity type, created on the first call
+     */
+    public AtomicLong counter(Class<?> entityType) {
+        return counters.computeIfAbsent(entityType, type -> new AtomicLong());
+    }
+
+    void add(Class<?> entityType, long delta) {
+        counter(entityType).addAndGet(delta);
+    }
+}
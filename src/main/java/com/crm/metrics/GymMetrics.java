@@ -3,23 +3,57 @@ package com.crm.metrics;
 import com.crm.repositories.TraineeRepo;
 import com.crm.repositories.TrainerRepo;
 import com.crm.repositories.TrainingRepo;
+import com.crm.repositories.entities.Trainee;
+import com.crm.repositories.entities.Trainer;
+import com.crm.repositories.entities.Training;
 import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+/**
+ * Entity count gauges. The gauges read in-memory counters, so a scrape never queries the DB; the counters follow
+ * every persist and remove and are reset to the real counts every {@code gym.metrics.reconcile-interval-ms}.
+ */
 @Component
+@Slf4j
 @RequiredArgsConstructor
 public class GymMetrics {
     private final TrainerRepo trainerRepository;
     private final TraineeRepo traineeRepository;
     private final TrainingRepo trainingRepository;
+    private final EntityCounters entityCounters;
     private final MeterRegistry meterRegistry;
 
     @PostConstruct
     public void registerMetrics() {
-        meterRegistry.gauge("gym.trainers.count", trainerRepository, TrainerRepo::count);
-        meterRegistry.gauge("gym.trainees.count", traineeRepository, TraineeRepo::count);
-        meterRegistry.gauge("gym.trainings.count", trainingRepository, TrainingRepo::count);
+        reconcileCounts();
+        meterRegistry.gauge("gym.trainers.count", entityCounters.counter(Trainer.class));
+        meterRegistry.gauge("gym.trainees.count", entityCounters.counter(Trainee.class));
+        meterRegistry.gauge("gym.trainings.count", entityCounters.counter(Training.class));
     }
-}
\ No newline at end of file
+
+    @Scheduled(
+            initialDelayString = "${gym.metrics.reconcile-interval-ms:300000}",
+            fixedDelayString = "${gym.metrics.reconcile-interval-ms:300000}"
+    )
+    public void reconcileCounts() {
+        try {
+            reconcile(Trainer.class, trainerRepository.count());
+            reconcile(Trainee.class, traineeRepository.count());
+            reconcile(Training.class, trainingRepository.count());
+        } catch (DataAccessException e) {
+            log.warn("Entity counts were not reconciled, the gauges keep counted values: {}", e.getMessage());
+        }
+    }
+
+    private void reconcile(Class<?> entityType, long count) {
+        var counted = entityCounters.counter(entityType).getAndSet(count);
+        if (counted != count) {
+            log.debug("Count of {} was reconciled from {} to {}", entityType.getSimpleName(), counted, count);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.crm.metrics.timing;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Adds JDBC time of a Hibernate session to the {@link RequestTiming} of the current request: connection acquisition,
+ * statement preparation and execution. Time spent waiting for a pooled connection and time the connection is held
+ * are added separately as well. Registered for every session with {@code hibernate.session.events.auto}.
+ */
+public class DbTimingSessionListener implements SessionEventListener {
+    private static final long NOT_HELD = Long.MIN_VALUE;
+
+    private int depth;
+    private long startNanos;
+    private long acquisitionStartNanos;
+    private long acquiredAtNanos = NOT_HELD;
+
+    @Override
+    public void jdbcConnectionAcquisitionStart() {
+        acquisitionStartNanos = System.nanoTime();
+        enter();
+    }
+
+    @Override
+    public void jdbcConnectionAcquisitionEnd() {
+        exit();
+        acquiredAtNanos = System.nanoTime();
+        var timing = RequestTiming.current();
+        if (timing != null) {
+            timing.addConnectionAcquisition(acquiredAtNanos - acquisitionStartNanos);
+        }
+    }
+
+    @Override
+    public void jdbcConnectionReleaseEnd() {
+        if (acquiredAtNanos == NOT_HELD) {
+            return;
+        }
+
+        var timing = RequestTiming.current();
+        if (timing != null) {
+            timing.addConnectionHold(System.nanoTime() - acquiredAtNanos);
+        }
+        acquiredAtNanos = NOT_HELD;
+    }
+
+    @Override
+    public void jdbcPrepareStatementStart() {
+        enter();
+    }
+
+    @Override
+    public void jdbcPrepareStatementEnd() {
+        exit();
+    }
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        enter();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        exit();
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        enter();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        exit();
+    }
+
+    /**
+     * Connection acquisition may happen inside statement preparation, nested events are counted once.
+     */
+    private void enter() {
+        if (depth++ == 0) {
+            startNanos = System.nanoTime();
+        }
+    }
+
+    private void exit() {
+        if (depth == 0 || --depth > 0) {
+            return;
+        }
+
+        var timing = RequestTiming.current();
+        if (timing != null) {
+            timing.addDb(System.nanoTime() - startNanos);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.crm.metrics.timing;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Phase breakdown of one request: authentication, service, DB and serialization of the response body.
+ * <p>
+ * Lives in a request attribute, so that it survives async dispatches, and is bound to the thread handling the request
+ * while the filter chain runs, so that DB statements can be attributed to it. Service time is the handler time
+ * before the body is written, without the DB time spent in it.
+ */
+public final class RequestTiming {
+    public static final String ATTRIBUTE = RequestTiming.class.getName();
+    private static final ThreadLocal<RequestTiming> CURRENT = new ThreadLocal<>();
+    private static final long NOT_SET = Long.MIN_VALUE;
+
+    public enum Phase {
+        AUTH, SERVICE, DB, SERIALIZATION;
+
+        public String tag() {
+            return name().toLowerCase();
+        }
+    }
+
+    private final long startNanos;
+    private long authNanos;
+    private long dbNanos;
+    private int connectionAcquisitions;
+    private long connectionAcquisitionNanos;
+    private long connectionHoldNanos;
+    private long handlerStartNanos = NOT_SET;
+    private long bodyWriteStartNanos = NOT_SET;
+    private long handlerEndNanos = NOT_SET;
+
+    private RequestTiming(long startNanos) {
+        this.startNanos = startNanos;
+    }
+
+    /**
+     * @return timing of the request, created on the first call
+     */
+    public static RequestTiming of(HttpServletRequest request) {
+        var timing = (RequestTiming) request.getAttribute(ATTRIBUTE);
+        if (timing == null) {
+            timing = new RequestTiming(System.nanoTime());
+            request.setAttribute(ATTRIBUTE, timing);
+        }
+        return timing;
+    }
+
+    /**
+     * @return timing of the request handled by the current thread or null outside of a request
+     */
+    public static RequestTiming current() {
+        return CURRENT.get();
+    }
+
+    public static void bind(RequestTiming timing) {
+        CURRENT.set(timing);
+    }
+
+    public static void unbind() {
+        CURRENT.remove();
+    }
+
+    public void addAuth(long nanos) {
+        authNanos += nanos;
+    }
+
+    public void addDb(long nanos) {
+        dbNanos += nanos;
+    }
+
+    public void addConnectionAcquisition(long nanos) {
+        connectionAcquisitions++;
+        connectionAcquisitionNanos += nanos;
+    }
+
+    public void addConnectionHold(long nanos) {
+        connectionHoldNanos += nanos;
+    }
+
+    /**
+     * @return how many pooled connections the request took
+     */
+    public int connectionAcquisitions() {
+        return connectionAcquisitions;
+    }
+
+    /**
+     * @return time the request waited for pooled connections
+     */
+    public long connectionAcquisitionNanos() {
+        return connectionAcquisitionNanos;
+    }
+
+    /**
+     * @return time the request held pooled connections
+     */
+    public long connectionHoldNanos() {
+        return connectionHoldNanos;
+    }
+
+    void handlerStarted(long nanos) {
+        if (handlerStartNanos == NOT_SET) {
+            handlerStartNanos = nanos;
+        }
+    }
+
+    void bodyWriteStarted(long nanos) {
+        bodyWriteStartNanos = nanos;
+    }
+
+    void handlerCompleted(long nanos) {
+        handlerEndNanos = nanos;
+    }
+
+    public long totalNanos(long nowNanos) {
+        return nowNanos - startNanos;
+    }
+
+    /**
+     * @return durations of the phases the request went through, in nanos
+     */
+    public Map<Phase, Long> phases(long nowNanos) {
+        var phases = new EnumMap<Phase, Long>(Phase.class);
+        if (authNanos > 0) {
+            phases.put(Phase.AUTH, authNanos);
+        }
+
+        if (handlerStartNanos != NOT_SET) {
+            var handlerEnd = handlerEndNanos != NOT_SET ? handlerEndNanos : nowNanos;
+            var serviceEnd = bodyWriteStartNanos != NOT_SET ? bodyWriteStartNanos : handlerEnd;
+            phases.put(Phase.SERVICE, Math.max(serviceEnd - handlerStartNanos - dbNanos, 0));
+            if (bodyWriteStartNanos != NOT_SET) {
+                phases.put(Phase.SERIALIZATION, Math.max(handlerEnd - bodyWriteStartNanos, 0));
+            }
+        }
+
+        if (dbNanos > 0) {
+            phases.put(Phase.DB, dbNanos);
+        }
+        return phases;
+    }
+}
@@ -0,0 +1,18 @@
+package com.crm.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IssuedRefreshToken {
+    private String ownerUserName;
+    private Date expiredAt;
+    private String token;
+}
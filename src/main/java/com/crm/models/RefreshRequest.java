@@ -0,0 +1,14 @@
+package com.crm.models;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RefreshRequest {
+    @NotBlank(message = "Refresh token is mandatory")
+    private String refreshToken;
+}
@@ -16,4 +16,6 @@ public class Token {
     private Date issuedAt;
     private Date expiredAt;
     private String token;
+    private String refreshToken;
+    private Date refreshExpiredAt;
 }
@@ -0,0 +1,25 @@
+package com.crm.models;
+
+import com.crm.enums.UserRole;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserCredentials {
+    private String userName;
+    private String password;
+    private boolean isActive;
+    private UserRole role;
+
+    /**
+     * Used by the JPQL constructor expression, which resolves the role by the entity type as a plain string.
+     */
+    public UserCredentials(String userName, String password, boolean isActive, String role) {
+        this(userName, password, isActive, UserRole.valueOf(role));
+    }
+}
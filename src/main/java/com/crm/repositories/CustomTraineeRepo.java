@@ -1,7 +1,7 @@
 package com.crm.repositories;
 
+import com.crm.dtos.training.TrainingView;
 import com.crm.enums.TrainingType;
-import com.crm.repositories.entities.Training;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -21,9 +21,9 @@ public interface CustomTraineeRepo {
      * @param toDate the end date for filtering training sessions (optional, can be null)
      * @param trainerUserName the username of the trainer (optional, can be null)
      * @param trainingType the type of training (optional, can be null)
-     * @return a list of {@link Training} entities matching the given criteria
+     * @return a list of {@link TrainingView}s matching the given criteria, read without loading entities
      */
-    List<Training> getTraineeTrainingsByCriteria(
+    List<TrainingView> getTraineeTrainingsByCriteria(
             String traineeUsername,
             LocalDate fromDate,
             LocalDate toDate,
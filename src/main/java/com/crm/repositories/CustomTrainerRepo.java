@@ -1,7 +1,7 @@
 package com.crm.repositories;
 
+import com.crm.dtos.training.TrainingView;
 import com.crm.enums.TrainingType;
-import com.crm.repositories.entities.Training;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -21,9 +21,9 @@ public interface CustomTrainerRepo {
      * @param toDate the end date for filtering training sessions (optional, can be null)
      * @param traineeUserName the username of the trainee (optional, can be null)
      * @param trainingType the type of training (optional, can be null)
-     * @return a list of {@link Training} entities matching the given criteria
+     * @return a list of {@link TrainingView}s matching the given criteria, read without loading entities
      */
-    List<Training> getTrainerTrainingsByCriteria(
+    List<TrainingView> getTrainerTrainingsByCriteria(
             String trainerUsername,
             LocalDate fromDate,
             LocalDate toDate,
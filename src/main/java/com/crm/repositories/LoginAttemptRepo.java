@@ -0,0 +1,51 @@
+package com.crm.repositories;
+
+import com.crm.repositories.entities.LoginAttempt;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+public interface LoginAttemptRepo extends JpaRepository<LoginAttempt, String> {
+    /**
+     * Adds failures to the row of the user in place, failures of a row whose last failure is not newer than
+     * {@code windowStart} are started over.
+     *
+     * @return 1 if the row was updated, 0 if the user has no row yet
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+            UPDATE LoginAttempt a
+            SET a.failures = CASE WHEN a.lastFailureAt > :windowStart THEN a.failures + :failures ELSE :failures END,
+                a.lastFailureAt = :now
+            WHERE a.userName = :userName
+            """)
+    int addFailures(
+            @Param("userName") String userName,
+            @Param("failures") int failures,
+            @Param("now") Instant now,
+            @Param("windowStart") Instant windowStart
+    );
+
+    /**
+     * Inserts the row of the user, fails with a constraint violation if another node has just inserted it.
+     */
+    @Modifying
+    @Transactional
+    @Query("INSERT INTO LoginAttempt (userName, failures, lastFailureAt) VALUES (:userName, :failures, :now)")
+    int insert(@Param("userName") String userName, @Param("failures") int failures, @Param("now") Instant now);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM LoginAttempt a WHERE a.userName = :userName")
+    int deleteByUserName(@Param("userName") String userName);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM LoginAttempt a WHERE a.lastFailureAt <= :windowStart")
+    int deleteExpired(@Param("windowStart") Instant windowStart);
+}
@@ -0,0 +1,50 @@
+package com.crm.repositories;
+
+import com.crm.repositories.entities.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface RefreshTokenRepo extends JpaRepository<RefreshToken, Long> {
+    Optional<RefreshToken> findByFingerprint(String fingerprint);
+
+    /**
+     * Marks the refresh token as used, only one of concurrent callers can succeed.
+     *
+     * @param id the id of the refresh token
+     * @return 1 if the token was marked by this call, 0 if it had already been used or revoked
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE RefreshToken t SET t.used = true WHERE t.id = :id AND t.used = false AND t.revoked = false")
+    int markUsed(@Param("id") Long id);
+
+    /**
+     * Reads whether the refresh token was used straight from DB, bypassing the entity loaded before.
+     *
+     * @param id the id of the refresh token
+     * @return true if the token was exchanged, false if it was not, empty if it is unknown
+     */
+    @Query("SELECT t.used FROM RefreshToken t WHERE t.id = :id")
+    Optional<Boolean> findUsedById(@Param("id") Long id);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE RefreshToken t SET t.revoked = true WHERE t.familyId = :familyId")
+    int revokeFamily(@Param("familyId") String familyId);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE RefreshToken t SET t.revoked = true WHERE t.userName = :userName AND t.revoked = false")
+    int revokeAllByUserName(@Param("userName") String userName);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RefreshToken t WHERE t.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
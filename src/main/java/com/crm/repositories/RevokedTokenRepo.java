@@ -0,0 +1,28 @@
+package com.crm.repositories;
+
+import com.crm.repositories.entities.RevokedToken;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface RevokedTokenRepo extends JpaRepository<RevokedToken, Long> {
+    /**
+     * Reads revocations recorded after the given id, oldest first, so that nodes can pull them incrementally.
+     *
+     * @param id    the last id already seen by the caller
+     * @param limit maximum number of rows to read
+     * @return revocations with a greater id
+     */
+    List<RevokedToken> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RevokedToken t WHERE t.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -0,0 +1,36 @@
+package com.crm.repositories;
+
+import com.crm.repositories.entities.TokenEpoch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+public interface TokenEpochRepo extends JpaRepository<TokenEpoch, String> {
+    @Query("SELECT e.epoch FROM TokenEpoch e WHERE e.userName = :userName")
+    Optional<Long> findEpochByUserName(@Param("userName") String userName);
+
+    /**
+     * Increments the epoch of the user in place, so that concurrent increments are never lost.
+     *
+     * @param userName the user name
+     * @return 1 if the epoch was incremented, 0 if the user has no epoch yet
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE TokenEpoch e SET e.epoch = e.epoch + 1 WHERE e.userName = :userName")
+    int increment(@Param("userName") String userName);
+
+    /**
+     * Inserts the initial epoch of the user in its own transaction, so that a constraint violation raised when
+     * another node has just inserted it does not abort the transaction of the caller.
+     */
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query("INSERT INTO TokenEpoch (userName, epoch) VALUES (:userName, 0)")
+    int insert(@Param("userName") String userName);
+}
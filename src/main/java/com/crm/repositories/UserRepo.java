@@ -0,0 +1,37 @@
+package com.crm.repositories;
+
+import com.crm.models.UserCredentials;
+import com.crm.repositories.entities.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+public interface UserRepo extends JpaRepository<User, Long> {
+    /**
+     * Reads only the data needed for authentication of a trainee or a trainer in a single query,
+     * without loading the entity itself.
+     *
+     * @param userName the user name
+     * @return credentials of the user, or empty if there is no such user
+     */
+    @Query("""
+            SELECT new com.crm.models.UserCredentials(
+                u.userName,
+                u.password,
+                u.isActive,
+                CASE WHEN TYPE(u) = Trainer THEN 'TRAINER' ELSE 'TRAINEE' END
+            )
+            FROM User u
+            WHERE u.userName = :userName
+            """)
+    Optional<UserCredentials> findCredentialsByUserName(@Param("userName") String userName);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :password WHERE u.userName = :userName")
+    int updatePassword(@Param("userName") String userName, @Param("password") String password);
+}
@@ -0,0 +1,30 @@
+package com.crm.repositories.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(
+        name = "login_attempts",
+        indexes = @Index(name = "idx_login_attempts_last_failure_at", columnList = "last_failure_at")
+)
+public class LoginAttempt {
+    @Id
+    @Column(name = "username")
+    private String userName;
+
+    @Column(name = "failures", nullable = false)
+    private int failures;
+
+    @Column(name = "last_failure_at", nullable = false)
+    private Instant lastFailureAt;
+}
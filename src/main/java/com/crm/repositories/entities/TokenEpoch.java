@@ -0,0 +1,22 @@
+package com.crm.repositories.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "token_epochs")
+public class TokenEpoch {
+    @Id
+    @Column(name = "username")
+    private String userName;
+
+    @Column(name = "epoch", nullable = false)
+    private long epoch;
+}
@@ -1,5 +1,6 @@
 package com.crm.repositories.entities;
 
+import com.crm.metrics.EntityCountListener;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
@@ -15,6 +16,7 @@ import java.util.List;
 @SuperBuilder
 @Entity
 @Table(name = "trainees")
+@EntityListeners(EntityCountListener.class)
 @DynamicUpdate
 @ToString(exclude = "trainings")
 public class Trainee extends User {
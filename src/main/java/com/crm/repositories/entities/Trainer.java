@@ -1,6 +1,7 @@
 package com.crm.repositories.entities;
 
 import com.crm.enums.TrainingType;
+import com.crm.metrics.EntityCountListener;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
@@ -15,6 +16,7 @@ import java.util.List;
 @SuperBuilder
 @Entity
 @Table(name = "trainers")
+@EntityListeners(EntityCountListener.class)
 @DynamicUpdate
 @ToString(exclude = "trainings")
 public class Trainer extends User {
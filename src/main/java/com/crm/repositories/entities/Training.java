@@ -1,6 +1,7 @@
 package com.crm.repositories.entities;
 
 import com.crm.enums.TrainingType;
+import com.crm.metrics.EntityCountListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -17,6 +18,7 @@ import java.time.LocalDateTime;
 @Builder
 @Entity
 @Table(name = "trainings")
+@EntityListeners(EntityCountListener.class)
 @DynamicUpdate
 public class Training {
     @Id
@@ -1,10 +1,13 @@
 package com.crm.repositories.impl;
 
+import com.crm.dtos.training.TrainingView;
 import com.crm.enums.TrainingType;
 import com.crm.repositories.CustomTraineeRepo;
-import com.crm.repositories.entities.Training;
+import jakarta.annotation.PostConstruct;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
 import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceUnit;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
@@ -14,40 +17,31 @@ import java.util.List;
 public class CustomTraineeRepoImpl implements CustomTraineeRepo {
     @PersistenceContext
     private EntityManager entityManager;
+    @PersistenceUnit
+    private EntityManagerFactory entityManagerFactory;
+
+    private TrainingCriteriaQueries queries;
+
+    @PostConstruct
+    public void init() {
+        queries = new TrainingCriteriaQueries(
+                entityManagerFactory,
+                "Training.byTraineeCriteria",
+                "t.trainee.userName = :userName",
+                "t.trainer.userName = :partner"
+        );
+    }
 
     @Override
-    public List<Training> getTraineeTrainingsByCriteria(String traineeUsername, LocalDate fromDate, LocalDate toDate, String trainerUserName, TrainingType trainingType) {
-        var dynamicJpqlQuery = "SELECT t FROM Training t WHERE t.trainee.userName = :traineeUsername";
-
-        if (fromDate != null) {
-            dynamicJpqlQuery += " AND t.trainingDate >= :fromDate";
-        }
-        if (toDate != null) {
-            dynamicJpqlQuery += " AND t.trainingDate <= :toDate";
-        }
-        if (trainerUserName != null && !trainerUserName.isEmpty()) {
-            dynamicJpqlQuery += " AND t.trainer.userName = :trainerUserName";
-        }
-        if (trainingType != null) {
-            dynamicJpqlQuery += " AND t.trainingType = :trainingType";
-        }
-
-        var query = entityManager.createQuery(dynamicJpqlQuery, Training.class);
-        query.setParameter("traineeUsername", traineeUsername);
-
-        if (fromDate != null) {
-            query.setParameter("fromDate", fromDate);
-        }
-        if (toDate != null) {
-            query.setParameter("toDate", toDate);
-        }
-        if (trainerUserName != null && !trainerUserName.isEmpty()) {
-            query.setParameter("trainerUserName", trainerUserName);
-        }
-        if (trainingType != null) {
-            query.setParameter("trainingType", trainingType);
-        }
-
-        return query.getResultList();
+    public List<TrainingView> getTraineeTrainingsByCriteria(String traineeUsername, LocalDate fromDate, LocalDate toDate, String trainerUserName, TrainingType trainingType) {
+        var criteria = new TrainingCriteria(
+                traineeUsername,
+                fromDate,
+                toDate,
+                trainerUserName != null && !trainerUserName.isEmpty() ? trainerUserName : null,
+                trainingType
+        );
+
+        return queries.query(entityManager, criteria).getResultList();
     }
 }
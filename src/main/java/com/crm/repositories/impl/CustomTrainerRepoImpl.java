@@ -1,10 +1,13 @@
 package com.crm.repositories.impl;
 
+import com.crm.dtos.training.TrainingView;
 import com.crm.enums.TrainingType;
 import com.crm.repositories.CustomTrainerRepo;
-import com.crm.repositories.entities.Training;
+import jakarta.annotation.PostConstruct;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
 import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceUnit;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
@@ -14,46 +17,37 @@ import java.util.List;
 public class CustomTrainerRepoImpl implements CustomTrainerRepo {
     @PersistenceContext
     private EntityManager entityManager;
+    @PersistenceUnit
+    private EntityManagerFactory entityManagerFactory;
+
+    private TrainingCriteriaQueries queries;
+
+    @PostConstruct
+    public void init() {
+        queries = new TrainingCriteriaQueries(
+                entityManagerFactory,
+                "Training.byTrainerCriteria",
+                "t.trainer.userName = :userName",
+                "(t.trainee.firstName LIKE :partner OR t.trainee.lastName LIKE :partner)"
+        );
+    }
 
     @Override
-    public List<Training> getTrainerTrainingsByCriteria(
+    public List<TrainingView> getTrainerTrainingsByCriteria(
             String trainerUsername,
             LocalDate fromDate,
             LocalDate toDate,
             String traineeUserName,
             TrainingType trainingType
     ) {
-        var dynamicJpqlQuery = "SELECT t FROM Training t WHERE t.trainer.userName = :trainerUsername";
-
-        if (fromDate != null) {
-            dynamicJpqlQuery += " AND t.trainingDate >= :fromDate";
-        }
-        if (toDate != null) {
-            dynamicJpqlQuery += " AND t.trainingDate <= :toDate";
-        }
-        if (traineeUserName != null && !traineeUserName.isEmpty()) {
-            dynamicJpqlQuery += " AND (t.trainee.firstName LIKE :traineeName OR t.trainee.lastName LIKE :traineeName)";
-        }
-        if (trainingType != null) {
-            dynamicJpqlQuery += " AND t.trainingType = :trainingType";
-        }
-
-        var query = entityManager.createQuery(dynamicJpqlQuery, Training.class);
-        query.setParameter("trainerUsername", trainerUsername);
-
-        if (fromDate != null) {
-            query.setParameter("fromDate", fromDate);
-        }
-        if (toDate != null) {
-            query.setParameter("toDate", toDate);
-        }
-        if (traineeUserName != null && !traineeUserName.isEmpty()) {
-            query.setParameter("traineeName", "%" + traineeUserName + "%");
-        }
-        if (trainingType != null) {
-            query.setParameter("trainingType", trainingType);
-        }
-
-        return query.getResultList();
+        var criteria = new TrainingCriteria(
+                trainerUsername,
+                fromDate,
+                toDate,
+                traineeUserName != null && !traineeUserName.isEmpty() ? "%" + traineeUserName + "%" : null,
+                trainingType
+        );
+
+        return queries.query(entityManager, criteria).getResultList();
     }
 }
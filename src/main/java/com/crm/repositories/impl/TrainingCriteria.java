@@ -0,0 +1,49 @@
+package com.crm.repositories.impl;
+
+import com.crm.enums.TrainingType;
+
+import java.time.LocalDate;
+
+/**
+ * Filter of a training search: the user whose trainings are searched and four optional filters.
+ * Every combination of the optional filters present is one query variant of {@link TrainingCriteriaQueries}.
+ *
+ * @param userName     user name of the trainee or trainer whose trainings are searched
+ * @param fromDate     the earliest training date, optional
+ * @param toDate       the latest training date, optional
+ * @param partner      value bound to the filter on the other side of the training, optional
+ * @param trainingType the training type, optional
+ */
+record TrainingCriteria(
+        String userName,
+        LocalDate fromDate,
+        LocalDate toDate,
+        Object partner,
+        TrainingType trainingType
+) {
+    static final int FROM_DATE = 1;
+    static final int TO_DATE = 1 << 1;
+    static final int PARTNER = 1 << 2;
+    static final int TRAINING_TYPE = 1 << 3;
+    static final int VARIANTS = 1 << 4;
+
+    /**
+     * @return bit set of the optional filters present
+     */
+    int variant() {
+        var variant = 0;
+        if (fromDate != null) {
+            variant |= FROM_DATE;
+        }
+        if (toDate != null) {
+            variant |= TO_DATE;
+        }
+        if (partner != null) {
+            variant |= PARTNER;
+        }
+        if (trainingType != null) {
+            variant |= TRAINING_TYPE;
+        }
+        return variant;
+    }
+}
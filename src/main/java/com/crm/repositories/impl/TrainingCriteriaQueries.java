@@ -0,0 +1,84 @@
+package com.crm.repositories.impl;
+
+import com.crm.dtos.training.TrainingView;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.TypedQuery;
+
+/**
+ * Registry of the training search query variants, one per combination of optional filters.
+ * <p>
+ * All variants are parsed once and registered as named queries on start, so that a search neither builds JPQL
+ * nor looks up its plan by query text; parameters are bound from the variant bits of {@link TrainingCriteria}.
+ * Rows are read straight into {@link TrainingView}s with a constructor expression: trainee and trainer ids come
+ * from the foreign key columns, so no entity is loaded into the persistence context and the query count does not
+ * grow with the number of rows. Training dates carry time, so the date range is bound as from the start of {@code fromDate} up to the end
+ * of {@code toDate}.
+ */
+class TrainingCriteriaQueries {
+    private static final String SELECT_VIEW = """
+            SELECT new com.crm.dtos.training.TrainingView(
+                t.id, t.trainee.id, t.trainer.id, t.trainingName, t.trainingType, t.trainingDate, t.trainingDuration
+            )
+            FROM Training t
+            WHERE\s""";
+
+    private final String[] names = new String[TrainingCriteria.VARIANTS];
+
+    /**
+     * @param name          prefix of the named queries
+     * @param userClause    condition on the searched user, with the {@code :userName} parameter
+     * @param partnerClause condition on the other side of the training, with the {@code :partner} parameter
+     */
+    TrainingCriteriaQueries(EntityManagerFactory entityManagerFactory, String name,
+                            String userClause, String partnerClause) {
+        var entityManager = entityManagerFactory.createEntityManager();
+        try {
+            for (int variant = 0; variant < TrainingCriteria.VARIANTS; variant++) {
+                names[variant] = name + "." + variant;
+                var query = entityManager.createQuery(jpql(variant, userClause, partnerClause), TrainingView.class);
+                entityManagerFactory.addNamedQuery(names[variant], query);
+            }
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    TypedQuery<TrainingView> query(EntityManager entityManager, TrainingCriteria criteria) {
+        var variant = criteria.variant();
+        var query = entityManager.createNamedQuery(names[variant], TrainingView.class);
+        query.setParameter("userName", criteria.userName());
+
+        if ((variant & TrainingCriteria.FROM_DATE) != 0) {
+            query.setParameter("fromDate", criteria.fromDate().atStartOfDay());
+        }
+        if ((variant & TrainingCriteria.TO_DATE) != 0) {
+            query.setParameter("toDate", criteria.toDate().plusDays(1).atStartOfDay());
+        }
+        if ((variant & TrainingCriteria.PARTNER) != 0) {
+            query.setParameter("partner", criteria.partner());
+        }
+        if ((variant & TrainingCriteria.TRAINING_TYPE) != 0) {
+            query.setParameter("trainingType", criteria.trainingType());
+        }
+
+        return query;
+    }
+
+    static String jpql(int variant, String userClause, String partnerClause) {
+        var jpql = new StringBuilder(SELECT_VIEW).append(userClause);
+        if ((variant & TrainingCriteria.FROM_DATE) != 0) {
+            jpql.append(" AND t.trainingDate >= :fromDate");
+        }
+        if ((variant & TrainingCriteria.TO_DATE) != 0) {
+            jpql.append(" AND t.trainingDate < :toDate");
+        }
+        if ((variant & TrainingCriteria.PARTNER) != 0) {
+            jpql.append(" AND ").append(partnerClause);
+        }
+        if ((variant & TrainingCriteria.TRAINING_TYPE) != 0) {
+            jpql.append(" AND t.trainingType = :trainingType");
+        }
+        return jpql.toString();
+    }
+}
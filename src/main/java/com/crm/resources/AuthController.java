@@ -1,8 +1,11 @@
 package com.crm.resources;
 
+import com.crm.exceptions.UserBlockedException;
 import com.crm.models.AuthRequest;
+import com.crm.models.RefreshRequest;
 import com.crm.models.Token;
 import com.crm.services.security.GymSecurityService;
+import com.crm.services.security.LoginTarpit;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -11,7 +14,9 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 
 @RestController
 @RequestMapping("/api/v1/auth")
@@ -19,10 +24,11 @@ import org.springframework.web.bind.annotation.*;
 @Tag(name = "REST API for authentication", description = "Provides resource methods for authentication")
 public class AuthController {
     private final GymSecurityService securityService;
+    private final LoginTarpit loginTarpit;
 
     @Operation(
             summary = "Login for already registered users",
-            description = "Creates a token for users.",
+            description = "Creates a token for users. Responses to failed logins are delayed, the delay grows with every failure.",
             parameters = {
                     @Parameter(name = "request", description = "AuthRequest object", required = true)
             },
@@ -34,16 +40,45 @@ public class AuthController {
             }
     )
     @PostMapping("/login")
-    public ResponseEntity<Token> login(@RequestBody @Valid AuthRequest request) {
+    public DeferredResult<ResponseEntity<Token>> login(@RequestBody @Valid AuthRequest request) {
+        var result = new DeferredResult<ResponseEntity<Token>>();
+        try {
+            result.setResult(
+                    ResponseEntity.status(HttpStatus.CREATED)
+                            .body(securityService.login(request))
+            );
+        } catch (BadCredentialsException | UserBlockedException e) {
+            loginTarpit.delay(request.getUsername(), () -> result.setErrorResult(e));
+        }
+
+        return result;
+    }
+
+    @Operation(
+            summary = "Refresh token for already logged in users",
+            description = "Exchanges a refresh token for a new token and the next refresh token.",
+            parameters = {
+                    @Parameter(name = "request", description = "RefreshRequest object", required = true)
+            },
+            responses = {
+                    @ApiResponse(responseCode = "201", description = "Token created"),
+                    @ApiResponse(responseCode = "400", description = "Bad request"),
+                    @ApiResponse(responseCode = "401", description = "Refresh token is not valid"),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error")
+            }
+    )
+    @PostMapping("/refresh")
+    public ResponseEntity<Token> refresh(@RequestBody @Valid RefreshRequest request) {
         return ResponseEntity.status(HttpStatus.CREATED)
-                .body(securityService.login(request));
+                .body(securityService.refresh(request));
     }
 
     @Operation(
             summary = "Logout for already registered users",
             description = "Makes token unavailable for using",
             parameters = {
-                    @Parameter(name = "authHeader", description = "Authorization header", required = true)
+                    @Parameter(name = "authHeader", description = "Authorization header", required = true),
+                    @Parameter(name = "request", description = "RefreshRequest object with refresh token of the session")
             },
             responses = {
                     @ApiResponse(responseCode = "200", description = "Token was destroyed"),
@@ -53,7 +88,29 @@ public class AuthController {
             }
     )
     @PostMapping("/logout")
-    public ResponseEntity<String> logout(@RequestHeader("Authorization") String authHeader) {
-        return ResponseEntity.ok(securityService.logout(authHeader));
+    public ResponseEntity<String> logout(
+            @RequestHeader("Authorization") String authHeader,
+            @RequestBody(required = false) RefreshRequest request
+    ) {
+        var refreshToken = request == null ? null : request.getRefreshToken();
+        return ResponseEntity.ok(securityService.logout(authHeader, refreshToken));
+    }
+
+    @Operation(
+            summary = "Logout on all devices",
+            description = "Makes all tokens of the user unavailable for using",
+            parameters = {
+                    @Parameter(name = "authHeader", description = "Authorization header", required = true)
+            },
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Tokens were destroyed"),
+                    @ApiResponse(responseCode = "400", description = "Bad request"),
+                    @ApiResponse(responseCode = "401", description = "Token is not valid"),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error")
+            }
+    )
+    @PostMapping("/logout-all")
+    public ResponseEntity<String> logoutAll(@RequestHeader("Authorization") String authHeader) {
+        return ResponseEntity.ok(securityService.logoutAll(authHeader));
     }
 }
@@ -12,6 +12,8 @@ import com.crm.repositories.TraineeRepo;
 import com.crm.repositories.entities.Trainee;
 import com.crm.repositories.entities.Training;
 import com.crm.services.TraineeService;
+import com.crm.services.security.CustomUserDetailsService;
+import com.crm.services.security.TokenEpochService;
 import com.crm.utils.UserUtils;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
@@ -22,6 +24,8 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -33,6 +37,8 @@ public class TraineeServiceImpl implements TraineeService {
     private final TraineeRepo repository;
     private final ConversionService converter;
     private final PasswordEncoder passwordEncoder;
+    private final TokenEpochService tokenEpochService;
+    private final CustomUserDetailsService userDetailsService;
 
     @Override
     public Trainee findById(long id) {
@@ -105,12 +111,16 @@ public class TraineeServiceImpl implements TraineeService {
     public void delete(Trainee trainee) {
         log.info("Attempting to delete trainee with id: {}", trainee.getId());
         repository.delete(trainee);
+        onSecurityDataChanged(trainee.getUserName());
     }
 
     @Override
     public void deleteByUsername(String username) {
         log.info("Started deleting trainee with username= " + username);
-        repository.findByUserName(username).ifPresent(repository::delete);
+        repository.findByUserName(username).ifPresent(trainee -> {
+            repository.delete(trainee);
+            onSecurityDataChanged(username);
+        });
     }
 
     @Override
@@ -121,6 +131,7 @@ public class TraineeServiceImpl implements TraineeService {
         if (foundEntity.isPresent()) {
             var entity = foundEntity.get();
             entity.setActive(true);
+            userDetailsService.evict(entity.getUserName());
             return repository.save(entity).isActive();
         }
 
@@ -135,6 +146,7 @@ public class TraineeServiceImpl implements TraineeService {
         if (foundEntity.isPresent()) {
             var entity = foundEntity.get();
             entity.setActive(false);
+            onSecurityDataChanged(entity.getUserName());
             return repository.save(entity).isActive();
         }
 
@@ -152,10 +164,7 @@ public class TraineeServiceImpl implements TraineeService {
     @Override
     public Set<TrainingView> findTraineeTrainingsByCriteria(String traineeUsername, LocalDate fromDate, LocalDate toDate, String trainerUserName, TrainingType trainingType) {
         log.info("Starting searching for trainings by criteria... ");
-        return repository.getTraineeTrainingsByCriteria(traineeUsername, fromDate, toDate, trainerUserName, trainingType)
-                .stream()
-                .map(training -> converter.convert(training, TrainingView.class))
-                .collect(Collectors.toSet());
+        return new HashSet<>(repository.getTraineeTrainingsByCriteria(traineeUsername, fromDate, toDate, trainerUserName, trainingType));
     }
 
     @Override
@@ -179,6 +188,7 @@ public class TraineeServiceImpl implements TraineeService {
         log.info("Changing password for trainee...");
         foundTrainee.setPassword(passwordEncoder.encode(loginDto.getNewPassword()));
         repository.save(foundTrainee);
+        onSecurityDataChanged(foundTrainee.getUserName());
     }
 
     @Override
@@ -198,6 +208,11 @@ public class TraineeServiceImpl implements TraineeService {
 
         var fromDto = converter.convert(updateDto, Trainee.class);
         fromDto.setId(id);
+        if (securityDataChanged(foundTrainee, fromDto)) {
+            onSecurityDataChanged(foundTrainee.getUserName());
+        } else {
+            userDetailsService.evict(foundTrainee.getUserName());
+        }
 
         return converter.convert(update(fromDto), TraineeView.class);
     }
@@ -227,4 +242,20 @@ public class TraineeServiceImpl implements TraineeService {
                 .map(training -> converter.convert(training, TrainingView.class))
                 .collect(Collectors.toSet());
     }
+
+    /**
+     * Revokes all tokens of the user, so that no token issued with the old password or status can be used anymore.
+     */
+    private void onSecurityDataChanged(String username) {
+        tokenEpochService.revokeAll(username);
+        userDetailsService.evict(username);
+    }
+
+    /**
+     * Tells whether the update replaces the stored password or status of the user.
+     */
+    private static boolean securityDataChanged(Trainee stored, Trainee updated) {
+        return stored.isActive() != updated.isActive()
+                || !Objects.equals(stored.getPassword(), updated.getPassword());
+    }
 }
\ No newline at end of file
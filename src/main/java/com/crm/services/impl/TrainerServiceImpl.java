@@ -10,6 +10,8 @@ import com.crm.exceptions.UserNameChangedException;
 import com.crm.repositories.TrainerRepo;
 import com.crm.repositories.entities.Trainer;
 import com.crm.services.TrainerService;
+import com.crm.services.security.CustomUserDetailsService;
+import com.crm.services.security.TokenEpochService;
 import com.crm.utils.UserUtils;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
@@ -20,6 +22,8 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -31,6 +35,8 @@ public class TrainerServiceImpl implements TrainerService {
     private final TrainerRepo repository;
     private final ConversionService converter;
     private final PasswordEncoder passwordEncoder;
+    private final TokenEpochService tokenEpochService;
+    private final CustomUserDetailsService userDetailsService;
 
     @Override
     public Trainer findById(long id) {
@@ -106,6 +112,7 @@ public class TrainerServiceImpl implements TrainerService {
         if (foundEntity.isPresent()) {
             var entity = foundEntity.get();
             entity.setActive(true);
+            userDetailsService.evict(entity.getUserName());
             return repository.save(entity).isActive();
         }
 
@@ -120,6 +127,7 @@ public class TrainerServiceImpl implements TrainerService {
         if (foundEntity.isPresent()) {
             var entity = foundEntity.get();
             entity.setActive(false);
+            onSecurityDataChanged(entity.getUserName());
             return repository.save(entity).isActive();
         }
 
@@ -155,6 +163,7 @@ public class TrainerServiceImpl implements TrainerService {
         log.info("Changing password for trainee...");
         foundTrainer.setPassword(passwordEncoder.encode(loginDto.getNewPassword()));
         repository.save(foundTrainer);
+        onSecurityDataChanged(foundTrainer.getUserName());
     }
 
     @Override
@@ -174,6 +183,11 @@ public class TrainerServiceImpl implements TrainerService {
 
         var fromDto = converter.convert(updateDto, Trainer.class);
         fromDto.setId(id);
+        if (securityDataChanged(foundTrainer, fromDto)) {
+            onSecurityDataChanged(foundTrainer.getUserName());
+        } else {
+            userDetailsService.evict(foundTrainer.getUserName());
+        }
 
         return converter.convert(update(fromDto), TrainerView.class);
     }
@@ -190,10 +204,22 @@ public class TrainerServiceImpl implements TrainerService {
     @Override
     public Set<TrainingView> findTrainerTrainingsByCriteria(String trainerUsername, LocalDate fromDate, LocalDate toDate, String traineeUserName, TrainingType trainingType) {
         log.info("Starting searching for trainings by criteria... ");
-        return repository.getTrainerTrainingsByCriteria(trainerUsername, fromDate, toDate, traineeUserName, trainingType)
-                .stream()
-                .map(training -> converter.convert(training, TrainingView.class))
-                .collect(Collectors.toSet());
+        return new HashSet<>(repository.getTrainerTrainingsByCriteria(trainerUsername, fromDate, toDate, traineeUserName, trainingType));
     }
 
+    /**
+     * Revokes all tokens of the user, so that no token issued with the old password or status can be used anymore.
+     */
+    private void onSecurityDataChanged(String username) {
+        tokenEpochService.revokeAll(username);
+        userDetailsService.evict(username);
+    }
+
+    /**
+     * Tells whether the update replaces the stored password or status of the user.
+     */
+    private static boolean securityDataChanged(Trainer stored, Trainer updated) {
+        return stored.isActive() != updated.isActive()
+                || !Objects.equals(stored.getPassword(), updated.getPassword());
+    }
 }
\ No newline at end of file
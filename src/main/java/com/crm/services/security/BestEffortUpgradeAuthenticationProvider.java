@@ -0,0 +1,31 @@
+package com.crm.services.security;
+
+import com.crm.exceptions.PasswordHashingRejectedException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+
+/**
+ * Authentication provider treating the upgrade of an outdated password hash as best-effort. The upgrade runs after
+ * the password has matched, so a hashing pool without capacity keeps the old hash instead of failing the login.
+ * Failures to store the upgraded hash are handled by {@link CustomUserDetailsService#updatePassword}.
+ */
+@Slf4j
+public class BestEffortUpgradeAuthenticationProvider extends DaoAuthenticationProvider {
+    @Override
+    protected Authentication createSuccessAuthentication(Object principal, Authentication authentication,
+                                                         UserDetails user) {
+        try {
+            return super.createSuccessAuthentication(principal, authentication, user);
+        } catch (PasswordHashingRejectedException e) {
+            log.warn("Password hash of user={} was not upgraded: {}", user.getUsername(), e.getMessage());
+            var result = UsernamePasswordAuthenticationToken.authenticated(
+                    principal, authentication.getCredentials(), user.getAuthorities()
+            );
+            result.setDetails(authentication.getDetails());
+            return result;
+        }
+    }
+}
@@ -1,63 +1,53 @@
 package com.crm.services.security;
 
-import lombok.AllArgsConstructor;
+import io.jsonwebtoken.JwtException;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.time.Instant;
-import java.time.temporal.ChronoUnit;
-import java.util.Map;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-
 @Service
 @Slf4j
+@RequiredArgsConstructor
 public class BruteForceService {
+    private final JwtService jwtService;
+    private final TokenRevocationStore tokenRevocationStore;
+    private final LoginAttemptStore loginAttemptStore;
+
     @Value("${spring.security.brute-force.attempts}")
     private int maxAttempts;
-    @Value("${spring.security.brute-force.locked-time-minutes}")
-    private long lockedTime;
-    private final Map<String, FailedLoginAttempt> attempts = new ConcurrentHashMap<>();
-    private final Set<String> blacklistedTokens = ConcurrentHashMap.newKeySet();
 
     public void loginFailed(String username) {
-        log.info("Saving failed login`s attempt...");
-        var attempt = attempts.getOrDefault(username, new FailedLoginAttempt(0, null));
-        attempt.count++;
-
-        if (attempt.count >= maxAttempts) {
-            log.info("User with username:" + username + " has 3 failed login`s attempt and was blocked");
-            attempt.lockedUntil = Instant.now().plus(lockedTime, ChronoUnit.MINUTES);
+        log.debug("Saving failed login`s attempt...");
+        if (loginAttemptStore.recordFailure(username) == maxAttempts) {
+            log.info("User with username:" + username + " has " + maxAttempts + " failed login`s attempt and was blocked");
         }
-
-        attempts.put(username, attempt);
     }
 
     public boolean isUserBlocked(String username) {
-        log.info("Verifying if user is blocked...");
-        var attempt = attempts.get(username);
-        return attempt != null && attempt.lockedUntil != null && Instant.now().isBefore(attempt.lockedUntil);
+        log.debug("Verifying if user is blocked...");
+        return loginAttemptStore.failures(username) >= maxAttempts;
     }
 
     public void loginSucceeded(String username) {
-        log.info("Login was successful, all unsuccessful attempts were deleted...");
-        attempts.remove(username);
+        log.debug("Login was successful, all unsuccessful attempts were deleted...");
+        loginAttemptStore.reset(username);
     }
 
     public void logout(String token) {
-        log.info("Token was blacklisted and not available now!");
-        blacklistedTokens.add(token);
-    }
+        long expiresAt;
+        try {
+            expiresAt = jwtService.extractAllClaims(token).getExpiration().getTime();
+        } catch (JwtException e) {
+            log.info("Token is not valid anymore, nothing to blacklist: {}", e.getMessage());
+            return;
+        }
 
-    public boolean isTokenBlacklisted(String token) {
-        log.info("Verifying is token blocked...");
-        return blacklistedTokens.contains(token);
+        tokenRevocationStore.revoke(token, expiresAt);
+        log.info("Token was blacklisted and not available now!");
     }
 
-    @AllArgsConstructor
-    private static class FailedLoginAttempt {
-        private int count;
-        private Instant lockedUntil;
+    int failedAttempts(String username) {
+        return loginAttemptStore.failures(username);
     }
 }
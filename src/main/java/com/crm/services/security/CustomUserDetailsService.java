@@ -1,42 +1,133 @@
 package com.crm.services.security;
 
-import com.crm.repositories.TraineeRepo;
-import com.crm.repositories.TrainerRepo;
-import com.crm.repositories.entities.User;
+import com.crm.models.UserCredentials;
+import com.crm.repositories.UserRepo;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
-public class CustomUserDetailsService implements UserDetailsService {
-    private final TraineeRepo traineeRepo;
-    private final TrainerRepo trainerRepo;
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
+    private final UserRepo userRepo;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${spring.security.user-cache.max-size:10000}")
+    private long cacheMaxSize;
+    @Value("${spring.security.user-cache.ttl-seconds:60}")
+    private long cacheTtlSeconds;
+
+    /**
+     * Credentials snapshots instead of {@link UserDetails}: Spring Security erases the password of the
+     * authenticated principal, so a fresh {@link UserDetails} is built for every call.
+     * <p>
+     * The cache is local to the node, evictions are not shared with other nodes, so the time to live bounds how long
+     * another node may keep serving outdated credentials.
+     */
+    private Cache<String, UserCredentials> credentialsCache;
+
+    @PostConstruct
+    public void init() {
+        credentialsCache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(cacheTtlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, credentialsCache, "userDetails");
+    }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        log.info("Starting searching for already existed user...");
-        var user = findUserByUsername(username);
+        log.debug("Starting searching for already existed user...");
+        var credentials = credentialsCache.get(username, this::findUserByUsername);
+
+        return mapToUserDetails(credentials);
+    }
+
+    /**
+     * Stores the password hash upgraded by Spring Security after a successful authentication. The user was just
+     * loaded, so the hash is written with a single update and the cached credentials are updated in place.
+     * <p>
+     * The upgrade is best-effort: the password has already matched, so when the hash can not be stored the user
+     * is returned unchanged and the login still succeeds.
+     *
+     * @param user        the authenticated user
+     * @param newPassword the upgraded password hash
+     * @return the user with the upgraded password hash, or the unchanged user if the hash was not stored
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        log.info("Upgrading password hash of user={}", user.getUsername());
+        try {
+            userRepo.updatePassword(user.getUsername(), newPassword);
+        } catch (DataAccessException e) {
+            log.warn("Password hash of user={} was not upgraded: {}", user.getUsername(), e.getMessage());
+            return user;
+        }
+        credentialsCache.asMap().computeIfPresent(
+                user.getUsername(),
+                (username, credentials) -> new UserCredentials(
+                        credentials.getUserName(), newPassword, credentials.isActive(), credentials.getRole()
+                )
+        );
+
+        return org.springframework.security.core.userdetails.User.withUserDetails(user)
+                .password(newPassword)
+                .build();
+    }
+
+    /**
+     * Drops cached credentials of the user, must be called whenever password, status or profile of the user
+     * was changed or the user was deleted.
+     * <p>
+     * Within a transaction the credentials are dropped again once it commits, otherwise a concurrent load could cache
+     * the not yet committed, outdated credentials back.
+     *
+     * @param username the user name of changed user
+     */
+    public void evict(String username) {
+        log.info("Evicting cached credentials of user={}", username);
+        credentialsCache.invalidate(username);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
 
-        return mapToUserDetails(user);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                credentialsCache.invalidate(username);
+            }
+        });
     }
 
-    private User findUserByUsername(String username) {
-        return traineeRepo.findByUserName(username)
-                .map(trainer -> (User) trainer)
-                .or(() -> trainerRepo.findByUserName(username))
+    private UserCredentials findUserByUsername(String username) {
+        return userRepo.findCredentialsByUserName(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
     }
 
-    private UserDetails mapToUserDetails(User user) {
-        log.info("Creating user`s credentials...");
+    private UserDetails mapToUserDetails(UserCredentials credentials) {
+        log.debug("Creating user`s credentials...");
         return org.springframework.security.core.userdetails.User.builder()
-                .username(user.getUserName())
-                .password(user.getPassword())
+                .username(credentials.getUserName())
+                .password(credentials.getPassword())
+                .authorities(credentials.getRole().getAuthority())
+                .disabled(!credentials.isActive())
                 .build();
     }
 }
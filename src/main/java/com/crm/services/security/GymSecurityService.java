@@ -1,13 +1,23 @@
 package com.crm.services.security;
 
+import com.crm.exceptions.InvalidRefreshTokenException;
+import com.crm.exceptions.PasswordHashingRejectedException;
 import com.crm.exceptions.UserBlockedException;
 import com.crm.models.AuthRequest;
+import com.crm.models.IssuedRefreshToken;
+import com.crm.models.RefreshRequest;
 import com.crm.models.Token;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 import java.util.Optional;
@@ -19,38 +29,105 @@ import java.util.Optional;
 @RequiredArgsConstructor
 @Slf4j
 public class GymSecurityService {
+    private static final String LOGIN_STAGE_TIMER = "security.login.stage";
+
     private final AuthenticationManager authenticationManager;
     private final JwtService jwtService;
     private final CustomUserDetailsService userDetailsService;
     private final BruteForceService bruteForceService;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenEpochService tokenEpochService;
+    private final TokenRevocationStore tokenRevocationStore;
+    private final MeterRegistry meterRegistry;
+
+    private Timer bruteForceCheckTimer;
+    private Timer verificationTimer;
+    private Timer tokenIssueTimer;
+
+    @PostConstruct
+    public void init() {
+        bruteForceCheckTimer = meterRegistry.timer(LOGIN_STAGE_TIMER, "stage", "brute_force_check");
+        verificationTimer = meterRegistry.timer(LOGIN_STAGE_TIMER, "stage", "verification");
+        tokenIssueTimer = meterRegistry.timer(LOGIN_STAGE_TIMER, "stage", "token_issue");
+    }
 
     /**
      * Authenticates a user and generates a JWT token if successful.
      *
      * @param request The authentication request containing username and password.
-     * @return A Token object containing JWT and metadata.
+     * @return A Token object containing JWT, refresh token and metadata.
      * @throws UserBlockedException    If the user is temporarily blocked due to multiple failed login attempts.
      * @throws BadCredentialsException If the credentials are invalid.
+     * @throws PasswordHashingRejectedException If the server has no capacity to verify the password right now.
      */
     public Token login(AuthRequest request) {
-        log.info("Starting logging in...");
-        if (bruteForceService.isUserBlocked(request.getUsername())) {
+        log.debug("Starting logging in...");
+        var blocked = bruteForceCheckTimer.record(() -> bruteForceService.isUserBlocked(request.getUsername()));
+        if (blocked) {
             log.info("User is temporarily blocked!");
             throw new UserBlockedException("User is temporarily blocked. Try again later.");
         }
 
-        authentication(request);
+        var userDetails = verificationTimer.record(() -> authentication(request));
+
+        return tokenIssueTimer.record(() -> {
+            var refreshToken = refreshTokenService.issue(userDetails.getUsername());
+            return withRefreshToken(issueToken(userDetails), refreshToken);
+        });
+    }
+
+    /**
+     * Issues a new access token for a refresh token without verifying the password again.
+     * The refresh token is rotated, the response carries the next one.
+     *
+     * @param request The refresh request containing the refresh token.
+     * @return A Token object containing JWT, the next refresh token and metadata.
+     * @throws InvalidRefreshTokenException If the refresh token is not valid or its owner can not log in anymore.
+     */
+    public Token refresh(RefreshRequest request) {
+        log.debug("Starting refreshing token...");
+        var refreshToken = refreshTokenService.rotate(request.getRefreshToken());
+
+        UserDetails userDetails;
+        try {
+            userDetails = userDetailsService.loadUserByUsername(refreshToken.getOwnerUserName());
+        } catch (UsernameNotFoundException e) {
+            refreshTokenService.revoke(refreshToken.getToken());
+            throw new InvalidRefreshTokenException("Owner of refresh token was not found");
+        }
+
+        if (!userDetails.isEnabled()) {
+            refreshTokenService.revoke(refreshToken.getToken());
+            throw new InvalidRefreshTokenException("Owner of refresh token is not active");
+        }
+
+        return withRefreshToken(issueToken(userDetails), refreshToken);
+    }
 
-        var userDetails = userDetailsService.loadUserByUsername(request.getUsername());
-        return jwtService.generateToken(userDetails);
+    private Token issueToken(UserDetails userDetails) {
+        return jwtService.generateToken(userDetails, tokenEpochService.storedEpoch(userDetails.getUsername()));
     }
 
-    private void authentication(AuthRequest request) {
+    private Token withRefreshToken(Token token, IssuedRefreshToken refreshToken) {
+        token.setRefreshToken(refreshToken.getToken());
+        token.setRefreshExpiredAt(refreshToken.getExpiredAt());
+        return token;
+    }
+
+    /**
+     * Verifies the credentials. The principal loaded by the authentication provider is returned,
+     * so that the user is not looked up again to issue the token.
+     */
+    private UserDetails authentication(AuthRequest request) {
         try {
-            authenticationManager.authenticate(
+            var authentication = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword())
             );
             bruteForceService.loginSucceeded(request.getUsername());
+            return (UserDetails) authentication.getPrincipal();
+        } catch (PasswordHashingRejectedException e) {
+            log.warn("Login was rejected, password hashing is overloaded");
+            throw e;
         } catch (Exception e) {
             bruteForceService.loginFailed(request.getUsername());
             throw new BadCredentialsException("Invalid credentials");
@@ -58,18 +135,23 @@ public class GymSecurityService {
     }
 
     /**
-     * Logs out the user by invalidating the provided JWT token.
+     * Logs out the user by invalidating the provided JWT token and the refresh token of the session, if given.
+     * The refresh token is revoked only if it belongs to the owner of a valid JWT token.
      *
-     * @param authHeader The authorization header containing the JWT token.
+     * @param authHeader   The authorization header containing the JWT token.
+     * @param refreshToken The refresh token of the session, may be null.
      * @return A confirmation message if logout is successful.
      * @throws BadCredentialsException If the token is invalid or missing.
      */
-    public String logout(String authHeader) {
-        log.info("Starting logging out...");
+    public String logout(String authHeader, String refreshToken) {
+        log.debug("Starting logging out...");
         return Optional.ofNullable(authHeader)
                 .filter(header -> header.startsWith("Bearer "))
                 .map(header -> {
                     var token = header.substring(7);
+                    if (refreshToken != null) {
+                        currentTokenOwner(token).ifPresent(owner -> refreshTokenService.revoke(refreshToken, owner));
+                    }
                     bruteForceService.logout(token);
                     return "Successfully logged out ";
                 })
@@ -80,4 +162,50 @@ public class GymSecurityService {
                         }
                 );
     }
+
+    /**
+     * Logs out the user on all devices by revoking every access and refresh token issued to the user so far.
+     *
+     * @param authHeader The authorization header containing a valid JWT token of the user.
+     * @return A confirmation message if logout is successful.
+     * @throws BadCredentialsException If the token is invalid, missing or already revoked.
+     */
+    public String logoutAll(String authHeader) {
+        log.debug("Starting logging out on all devices...");
+        var username = Optional.ofNullable(authHeader)
+                .filter(header -> header.startsWith("Bearer "))
+                .flatMap(header -> currentTokenOwner(header.substring(7)))
+                .orElseThrow(
+                        () -> {
+                            log.error("Inputted data is not valid!");
+                            return new BadCredentialsException("Invalid credentials");
+                        }
+                );
+
+        tokenEpochService.revokeAll(username);
+        return "Successfully logged out on all devices";
+    }
+
+    /**
+     * Resolves the owner of a token that is still accepted: not blacklisted, correctly signed, not expired
+     * and issued within the current token epoch of the owner.
+     */
+    private Optional<String> currentTokenOwner(String token) {
+        if (tokenRevocationStore.isRevoked(token)) {
+            return Optional.empty();
+        }
+
+        try {
+            var claims = jwtService.extractAllClaims(token);
+            var username = claims.getSubject();
+            if (username == null || tokenEpochService.isRevoked(username, jwtService.extractEpoch(claims))) {
+                return Optional.empty();
+            }
+
+            return Optional.of(username);
+        } catch (JwtException e) {
+            log.warn("JWT is not valid: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
 }
@@ -0,0 +1,165 @@
+package com.crm.services.security;
+
+import com.crm.repositories.LoginAttemptRepo;
+import com.crm.repositories.entities.LoginAttempt;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Counts failed logins in the {@code login_attempts} table shared by all nodes, so that a user gets
+ * {@code brute-force.attempts} tries per lock time in the whole cluster.
+ * <p>
+ * Failures are not written one by one: they are added up locally and flushed with a single atomic update per user
+ * on a schedule. The failure that makes the user reach the limit is written right away, so that the lock is seen
+ * by all nodes within the snapshot TTL. Counts of other nodes are read through a short-lived local snapshot.
+ * At most {@code max-pending-users} users are buffered, failures of further users are written right away.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "spring.security.brute-force.store", havingValue = "jpa")
+public class JpaLoginAttemptStore implements LoginAttemptStore {
+    private final LoginAttemptRepo loginAttemptRepo;
+
+    @Value("${spring.security.brute-force.attempts}")
+    private int maxAttempts;
+    @Value("${spring.security.brute-force.locked-time-minutes}")
+    private long lockedTime;
+    @Value("${spring.security.brute-force.max-tracked-users:100000}")
+    private long maxTrackedUsers;
+    @Value("${spring.security.brute-force.max-pending-users:10000}")
+    private int maxPendingUsers;
+    @Value("${spring.security.brute-force.snapshot-ttl-ms:1000}")
+    private long snapshotTtlMillis;
+
+    /**
+     * Failures registered by this node and not flushed yet, of at most {@code max-pending-users} users.
+     */
+    private final Map<String, Integer> pendingFailures = new ConcurrentHashMap<>();
+
+    /**
+     * Failures stored in DB, read at most once per {@code snapshot-ttl-ms} per user.
+     */
+    private Cache<String, Integer> storedFailures;
+
+    @PostConstruct
+    public void init() {
+        storedFailures = Caffeine.newBuilder()
+                .maximumSize(maxTrackedUsers)
+                .expireAfterWrite(Duration.ofMillis(snapshotTtlMillis))
+                .build();
+    }
+
+    @Override
+    public int recordFailure(String username) {
+        var pending = pendingFailures.merge(username, 1, Integer::sum);
+        var failures = storedFailures(username) + pending;
+        if (failures >= maxAttempts || pendingFailures.size() > maxPendingUsers) {
+            flush(username);
+            failures = storedFailures(username) + pendingFailures.getOrDefault(username, 0);
+        }
+
+        return failures;
+    }
+
+    @Override
+    public int failures(String username) {
+        return storedFailures(username) + pendingFailures.getOrDefault(username, 0);
+    }
+
+    @Override
+    public void reset(String username) {
+        var pending = pendingFailures.remove(username);
+        if (pending != null || storedFailures(username) > 0) {
+            loginAttemptRepo.deleteByUserName(username);
+            storedFailures.invalidate(username);
+        }
+    }
+
+    @Scheduled(
+            initialDelayString = "${spring.security.brute-force.flush-interval-ms:500}",
+            fixedDelayString = "${spring.security.brute-force.flush-interval-ms:500}"
+    )
+    public void flushPendingFailures() {
+        try {
+            pendingFailures.keySet().forEach(this::flush);
+        } catch (DataAccessException e) {
+            log.warn("Failed logins were not flushed, they are kept until the next flush: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(
+            initialDelayString = "${spring.security.brute-force.sweep-interval-ms:#{${spring.security.brute-force.locked-time-minutes} * 60000}}",
+            fixedDelayString = "${spring.security.brute-force.sweep-interval-ms:#{${spring.security.brute-force.locked-time-minutes} * 60000}}"
+    )
+    public void sweepExpiredAttempts() {
+        try {
+            var deleted = loginAttemptRepo.deleteExpired(windowStart(Instant.now()));
+            if (deleted > 0) {
+                log.info("{} expired failed login records were deleted", deleted);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Expired failed login records were not deleted, they are kept until the next sweep: {}", e.getMessage());
+        }
+    }
+
+    void flush(String username) {
+        var pending = pendingFailures.remove(username);
+        if (pending == null) {
+            return;
+        }
+
+        try {
+            write(username, pending);
+        } catch (DataAccessException e) {
+            pendingFailures.merge(username, pending, Integer::sum);
+            throw e;
+        } finally {
+            storedFailures.invalidate(username);
+        }
+    }
+
+    private void write(String username, int failures) {
+        var now = Instant.now();
+        if (loginAttemptRepo.addFailures(username, failures, now, windowStart(now)) > 0) {
+            return;
+        }
+
+        try {
+            loginAttemptRepo.insert(username, failures, now);
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Failed logins of user={} were inserted by another node", username);
+            loginAttemptRepo.addFailures(username, failures, now, windowStart(now));
+        }
+    }
+
+    private int storedFailures(String username) {
+        return storedFailures.get(username, this::loadFailures);
+    }
+
+    private int loadFailures(String username) {
+        var windowStart = windowStart(Instant.now());
+        return loginAttemptRepo.findById(username)
+                .filter(attempt -> attempt.getLastFailureAt().isAfter(windowStart))
+                .map(LoginAttempt::getFailures)
+                .orElse(0);
+    }
+
+    private Instant windowStart(Instant now) {
+        return now.minus(Duration.ofMinutes(lockedTime));
+    }
+}
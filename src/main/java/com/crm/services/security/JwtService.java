@@ -1,49 +1,126 @@
 package com.crm.services.security;
 
 import com.crm.models.Token;
+import com.crm.utils.TokenDigests;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
 import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.security.Key;
+import java.security.MessageDigest;
 import java.util.Base64;
 import java.util.Date;
-import java.util.function.Function;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @Service
 @Slf4j
 public class JwtService {
+    public static final String ROLES_CLAIM = "roles";
+    public static final String ACTIVE_CLAIM = "active";
+    public static final String EPOCH_CLAIM = "epoch";
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final TypeReference<Map<String, Object>> PAYLOAD_TYPE = new TypeReference<>() {
+    };
+    private static final Base64.Encoder BASE64_URL_ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    /**
+     * Encoded header of every token issued by this service. Tokens starting with it are verified on the fast path.
+     */
+    private static final String ISSUED_HEADER = BASE64_URL_ENCODER.encodeToString(
+            "{\"alg\":\"HS256\"}".getBytes(StandardCharsets.US_ASCII)
+    );
+
     @Value("${spring.security.jwt.secret-key}")
     private String secretKey;
 
     @Value("${spring.security.jwt.expiration-minutes}")
     private long expirationTimeMinutes;
 
+    @Value("${spring.security.jwt.claims-cache.max-size:10000}")
+    private long claimsCacheMaxSize;
+
     private Key key;
+    private JwtParser parser;
+    private ThreadLocal<Mac> hmac;
+
+    /**
+     * Claims of tokens whose signature was already verified, keyed by {@link TokenDigests#fingerprint(String)}.
+     * Every entry lives exactly until its token expires, so an expired token is never served from here
+     * and always goes back through the parser, which rejects it.
+     */
+    private Cache<String, Claims> verifiedClaims;
 
     @PostConstruct
     public void init() {
         var decodedKey = Base64.getDecoder().decode(secretKey);
         this.key = Keys.hmacShaKeyFor(decodedKey);
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build();
+        var hmacKey = new SecretKeySpec(decodedKey, HMAC_ALGORITHM);
+        this.hmac = ThreadLocal.withInitial(() -> newMac(hmacKey));
+        this.verifiedClaims = Caffeine.newBuilder()
+                .maximumSize(claimsCacheMaxSize)
+                .expireAfter(new TokenExpiry())
+                .build();
     }
 
-    public Token generateToken(UserDetails userDetails) {
-        log.info("Starting creating token...");
+    /**
+     * Issues a signed token for the user.
+     *
+     * @param userDetails the token owner
+     * @param epoch       the current token epoch of the owner, see {@link TokenEpochService}
+     * @return the issued token
+     */
+    public Token generateToken(UserDetails userDetails, long epoch) {
+        log.debug("Starting creating token...");
         var username = userDetails.getUsername();
         var issuedAt = new Date(System.currentTimeMillis());
         var expiredAt = new Date(System.currentTimeMillis() + (expirationTimeMinutes * 60_000));
-        var stingToken = Jwts.builder()
-                .setSubject(username)
-                .setIssuedAt(issuedAt)
-                .setExpiration(expiredAt)
-                .signWith(key, SignatureAlgorithm.HS256)
-                .compact();
+        var roles = userDetails.getAuthorities()
+                .stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList();
+
+        var payload = new LinkedHashMap<String, Object>();
+        payload.put(Claims.SUBJECT, username);
+        payload.put(ROLES_CLAIM, roles);
+        payload.put(ACTIVE_CLAIM, userDetails.isEnabled());
+        payload.put(EPOCH_CLAIM, epoch);
+        payload.put(Claims.ISSUED_AT, TimeUnit.MILLISECONDS.toSeconds(issuedAt.getTime()));
+        payload.put(Claims.EXPIRATION, TimeUnit.MILLISECONDS.toSeconds(expiredAt.getTime()));
+
+        var signingInput = ISSUED_HEADER + "." + BASE64_URL_ENCODER.encodeToString(toJson(payload));
+        var signature = hmac.get().doFinal(signingInput.getBytes(StandardCharsets.US_ASCII));
+        var stingToken = signingInput + "." + BASE64_URL_ENCODER.encodeToString(signature);
 
         return Token.builder()
                 .ownerUserName(username)
@@ -53,29 +130,169 @@ public class JwtService {
                 .build();
     }
 
-    public boolean validateToken(String token, UserDetails userDetails) {
-        log.info("Starting token`s validation...");
-        final var username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+    /**
+     * Returns the verified claims of the token. The signature is checked only the first time a token is seen,
+     * subsequent calls with the same token are served from the cache until the token expires.
+     *
+     * @param token the compact JWT string
+     * @return verified claims of the token
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, has an invalid signature or is expired
+     */
+    public Claims extractAllClaims(String token) {
+        return extractAllClaims(token, TokenDigests.fingerprint(token));
     }
 
-    public String extractUsername(String token) {
-        log.info("Extracting username...");
-        return extractClaim(token, Claims::getSubject);
+    /**
+     * Same as {@link #extractAllClaims(String)} for a caller that has already computed the fingerprint of the token.
+     * <p>
+     * A token whose signature is not encoded in canonical base64url is rejected before the cache is consulted:
+     * the fingerprint is the same for every encoding of the signature, only the canonical one is accepted.
+     *
+     * @param token       the compact JWT string
+     * @param fingerprint {@link TokenDigests#fingerprint(String)} of the token
+     * @return verified claims of the token
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, has an invalid signature or is expired
+     */
+    public Claims extractAllClaims(String token, String fingerprint) {
+        requireCanonical(token);
+        var claims = verifiedClaims.getIfPresent(fingerprint);
+        if (claims == null) {
+            claims = parseClaims(token);
+            verifiedClaims.put(fingerprint, claims);
+        }
+
+        return claims;
     }
 
-    private boolean isTokenExpired(String token) {
-        log.info("Start checking if token expired...");
-        return extractClaim(token, Claims::getExpiration).before(new Date());
+    /**
+     * Restores the principal from signed claims of the token without touching DB.
+     *
+     * @param claims verified claims of the token
+     * @return principal of the token owner, or empty if the token was issued without principal claims
+     */
+    public Optional<UserDetails> extractUserDetails(Claims claims) {
+        var active = claims.get(ACTIVE_CLAIM, Boolean.class);
+        var roles = claims.get(ROLES_CLAIM, List.class);
+        if (active == null || roles == null) {
+            return Optional.empty();
+        }
+
+        var authorities = ((List<?>) roles).stream()
+                .map(role -> new SimpleGrantedAuthority(role.toString()))
+                .toList();
+
+        return Optional.of(
+                User.withUsername(claims.getSubject())
+                        .password("")
+                        .authorities(authorities)
+                        .disabled(!active)
+                        .build()
+        );
     }
 
-    private <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        log.info("Start extracting claims...");
-        var claims = Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claimsResolver.apply(claims);
+    /**
+     * @param claims verified claims of the token
+     * @return the token epoch of the owner at issue time, tokens issued without it belong to the initial epoch
+     */
+    public long extractEpoch(Claims claims) {
+        var epoch = claims.get(EPOCH_CLAIM, Number.class);
+        return epoch == null ? 0 : epoch.longValue();
+    }
+
+    /**
+     * Verifies the token and reads its claims. Tokens issued by this service are verified with the per-thread
+     * {@link Mac} and their payload is read directly, any other token goes through the full JWT parser.
+     * The header is covered by the signature, so a token with the issued header and a valid signature
+     * could only be issued by this service. Only the canonical base64url encoding of the signature is accepted.
+     */
+    Claims parseClaims(String token) {
+        requireCanonical(token);
+        var headerEnd = token.indexOf('.');
+        if (headerEnd != ISSUED_HEADER.length() || !token.startsWith(ISSUED_HEADER)) {
+            return parser.parseClaimsJws(token).getBody();
+        }
+
+        var payloadEnd = token.indexOf('.', headerEnd + 1);
+        if (payloadEnd < 0 || token.indexOf('.', payloadEnd + 1) >= 0) {
+            throw new MalformedJwtException("JWT strings must contain exactly 2 period characters");
+        }
+
+        var mac = hmac.get();
+        mac.update(token.getBytes(StandardCharsets.US_ASCII), 0, payloadEnd);
+        var expectedSignature = mac.doFinal();
+        if (!MessageDigest.isEqual(expectedSignature, decode(token, payloadEnd + 1, token.length()))) {
+            throw new SignatureException("JWT signature does not match locally computed signature.");
+        }
+
+        var claims = Jwts.claims(fromJson(decode(token, headerEnd + 1, payloadEnd)));
+        var expiration = claims.getExpiration();
+        if (expiration != null && new Date().after(expiration)) {
+            throw new ExpiredJwtException(null, claims, "JWT expired at " + expiration.toInstant());
+        }
+
+        return claims;
+    }
+
+    private static void requireCanonical(String token) {
+        if (!TokenDigests.isCanonical(token)) {
+            throw new MalformedJwtException("JWT signature is not encoded in canonical base64url");
+        }
+    }
+
+    private static byte[] decode(String token, int start, int end) {
+        try {
+            return Base64.getUrlDecoder().decode(token.substring(start, end));
+        } catch (IllegalArgumentException e) {
+            throw new MalformedJwtException("Unable to decode JWT part", e);
+        }
+    }
+
+    private static byte[] toJson(Map<String, Object> payload) {
+        try {
+            return JSON.writeValueAsBytes(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialize JWT payload", e);
+        }
+    }
+
+    private static Map<String, Object> fromJson(byte[] payload) {
+        try {
+            return JSON.readValue(payload, PAYLOAD_TYPE);
+        } catch (IOException e) {
+            throw new MalformedJwtException("Unable to read JWT payload", e);
+        }
+    }
+
+    private static Mac newMac(SecretKeySpec key) {
+        try {
+            var mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not supported by the JVM", e);
+        }
+    }
+
+    private static class TokenExpiry implements Expiry<String, Claims> {
+        @Override
+        public long expireAfterCreate(String fingerprint, Claims claims, long currentTime) {
+            var expiration = claims.getExpiration();
+            if (expiration == null) {
+                return 0;
+            }
+
+            var millisLeft = expiration.getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(millisLeft, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String fingerprint, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String fingerprint, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
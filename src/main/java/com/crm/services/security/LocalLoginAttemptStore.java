@@ -0,0 +1,56 @@
+package com.crm.services.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Keeps failed logins in memory of this node. Suitable for a single node only: with several nodes every node
+ * counts its own failures, so a user gets {@code brute-force.attempts} tries on each of them.
+ * <p>
+ * The number of tracked user names is capped, so that attempts with random user names can not exhaust memory.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.security.brute-force.store", havingValue = "local", matchIfMissing = true)
+public class LocalLoginAttemptStore implements LoginAttemptStore {
+    @Value("${spring.security.brute-force.locked-time-minutes}")
+    private long lockedTime;
+    @Value("${spring.security.brute-force.max-tracked-users:100000}")
+    private long maxTrackedUsers;
+
+    private Cache<String, Integer> failures;
+
+    @PostConstruct
+    public void init() {
+        failures = Caffeine.newBuilder()
+                .maximumSize(maxTrackedUsers)
+                .expireAfterWrite(Duration.ofMinutes(lockedTime))
+                .build();
+    }
+
+    @Override
+    public int recordFailure(String username) {
+        return failures.asMap().merge(username, 1, Integer::sum);
+    }
+
+    @Override
+    public int failures(String username) {
+        var count = failures.getIfPresent(username);
+        return count == null ? 0 : count;
+    }
+
+    @Override
+    public void reset(String username) {
+        failures.invalidate(username);
+    }
+
+    long trackedUsers() {
+        failures.cleanUp();
+        return failures.estimatedSize();
+    }
+}
@@ -0,0 +1,30 @@
+package com.crm.services.security;
+
+/**
+ * Counts failed logins in a row per user name.
+ * <p>
+ * A count lives for {@code brute-force.locked-time-minutes} after the last failure of the user, so that a user
+ * reaching {@code brute-force.attempts} failures stays blocked exactly that long.
+ */
+public interface LoginAttemptStore {
+    /**
+     * Registers a failed login of the user.
+     *
+     * @param username the user name from the failed login
+     * @return failures of the user in a row, including this one
+     */
+    int recordFailure(String username);
+
+    /**
+     * @param username the user name
+     * @return failures of the user in a row, 0 if the last one was longer ago than the lock time
+     */
+    int failures(String username);
+
+    /**
+     * Forgets failures of the user after a successful login.
+     *
+     * @param username the user name
+     */
+    void reset(String username);
+}
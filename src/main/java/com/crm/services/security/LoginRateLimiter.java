@@ -0,0 +1,109 @@
+package com.crm.services.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Limits login attempts per client address with a sliding window.
+ * <p>
+ * The window is approximated by two fixed windows: attempts of the previous window are weighted by the part of it
+ * that still overlaps the sliding window. Per client state is an immutable record replaced atomically, clients are
+ * forgotten after two idle windows and the number of tracked clients is capped.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class LoginRateLimiter {
+    private final MeterRegistry meterRegistry;
+
+    @Value("${spring.security.login-rate-limit.max-attempts:20}")
+    private int maxAttempts;
+    @Value("${spring.security.login-rate-limit.window-seconds:60}")
+    private long windowSeconds;
+    @Value("${spring.security.login-rate-limit.max-tracked-clients:100000}")
+    private long maxTrackedClients;
+
+    private long windowMillis;
+    private Cache<String, Window> windows;
+    private Counter rejectedCounter;
+
+    @PostConstruct
+    public void init() {
+        windowMillis = Duration.ofSeconds(windowSeconds).toMillis();
+        windows = Caffeine.newBuilder()
+                .maximumSize(maxTrackedClients)
+                .expireAfterAccess(Duration.ofMillis(windowMillis * 2))
+                .build();
+        rejectedCounter = meterRegistry.counter("security.login.rate_limited");
+    }
+
+    /**
+     * Registers a login attempt of the client if it is still within the limit.
+     *
+     * @param clientAddress address of the client
+     * @return true if the attempt is allowed, false if the client has exceeded the limit
+     */
+    public boolean tryAcquire(String clientAddress) {
+        return tryAcquire(clientAddress, System.currentTimeMillis());
+    }
+
+    /**
+     * @return seconds after which a rejected client may try again in the worst case
+     */
+    public long retryAfterSeconds() {
+        return windowSeconds;
+    }
+
+    boolean tryAcquire(String clientAddress, long now) {
+        var windowStart = now - now % windowMillis;
+        var window = windows.asMap().compute(clientAddress, (key, previous) -> nextWindow(previous, windowStart, now));
+        if (!window.acquired()) {
+            log.warn("Login rate limit exceeded by client={}", clientAddress);
+            rejectedCounter.increment();
+        }
+
+        return window.acquired();
+    }
+
+    private Window nextWindow(Window previous, long windowStart, long now) {
+        var current = shift(previous, windowStart);
+        var previousWeight = 1.0 - (double) (now - windowStart) / windowMillis;
+        var estimated = current.previousCount() * previousWeight + current.currentCount();
+        if (estimated >= maxAttempts) {
+            return new Window(current.start(), current.currentCount(), current.previousCount(), false);
+        }
+
+        return new Window(current.start(), current.currentCount() + 1, current.previousCount(), true);
+    }
+
+    private Window shift(Window window, long windowStart) {
+        if (window == null || window.start() < windowStart - windowMillis) {
+            return new Window(windowStart, 0, 0, true);
+        }
+        if (window.start() < windowStart) {
+            return new Window(windowStart, 0, window.currentCount(), true);
+        }
+
+        return window;
+    }
+
+    /**
+     * Attempts of a client in the current and the previous fixed window.
+     *
+     * @param start         start of the current window, epoch millis
+     * @param currentCount  allowed attempts in the current window
+     * @param previousCount allowed attempts in the previous window
+     * @param acquired      whether the last attempt was allowed
+     */
+    private record Window(long start, int currentCount, int previousCount, boolean acquired) {
+    }
+}
@@ -0,0 +1,91 @@
+package com.crm.services.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Delays responses to failed logins, so that guessing passwords gets slower with every failure.
+ * <p>
+ * The delay doubles with every failed attempt of the user in a row and is the longest one for a blocked user.
+ * A delayed response is completed by a scheduler, no request thread waits for it. The number of pending responses
+ * is capped: above the cap responses are sent right away, the per client rate limit still applies to them.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class LoginTarpit {
+    private final BruteForceService bruteForceService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${spring.security.login-tarpit.base-delay-ms:250}")
+    private long baseDelayMillis;
+    @Value("${spring.security.login-tarpit.max-delay-ms:10000}")
+    private long maxDelayMillis;
+    @Value("${spring.security.login-tarpit.max-pending:1000}")
+    private int maxPending;
+
+    private final AtomicInteger pending = new AtomicInteger();
+    private ScheduledExecutorService scheduler;
+    private Counter overflowCounter;
+
+    @PostConstruct
+    public void init() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("login-tarpit-"));
+        meterRegistry.gauge("security.login.tarpit.pending", pending);
+        overflowCounter = meterRegistry.counter("security.login.tarpit.overflow");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Sends the response to a failed login of the user after the tarpit delay.
+     *
+     * @param username the user name from the failed login
+     * @param response completes the response, must not block
+     */
+    public void delay(String username, Runnable response) {
+        if (pending.incrementAndGet() > maxPending) {
+            pending.decrementAndGet();
+            overflowCounter.increment();
+            log.warn("Too many delayed login responses, the response is sent right away");
+            response.run();
+            return;
+        }
+
+        scheduler.schedule(() -> {
+            try {
+                response.run();
+            } finally {
+                pending.decrementAndGet();
+            }
+        }, delayMillis(username), TimeUnit.MILLISECONDS);
+    }
+
+    long delayMillis(String username) {
+        if (bruteForceService.isUserBlocked(username)) {
+            return maxDelayMillis;
+        }
+
+        var doublings = Math.min(Math.max(bruteForceService.failedAttempts(username) - 1, 0), 30);
+        return Math.min(baseDelayMillis << doublings, maxDelayMillis);
+    }
+
+    int pending() {
+        return pending.get();
+    }
+}
@@ -0,0 +1,74 @@
+package com.crm.services.security;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.stream.LongStream;
+
+/**
+ * Chooses the BCrypt strength (log2 of rounds) used for new password hashes.
+ * <p>
+ * Unless the strength is configured explicitly, it is calibrated at startup: a hash of known strength is measured
+ * on the host and, since every next strength doubles the time, the highest strength whose verification is
+ * expected to fit into the target time is taken, but never lower than the configured minimum.
+ */
+@Component
+@Slf4j
+public class PasswordHashStrengthCalibrator {
+    static final int MAX_STRENGTH = 31;
+    private static final int PROBE_STRENGTH = 8;
+    private static final int PROBE_RUNS = 3;
+    private static final String PROBE_PASSWORD = "calibration-password";
+
+    @Getter
+    private final int strength;
+
+    public PasswordHashStrengthCalibrator(
+            @Value("${spring.security.password-hashing.strength:0}") int configuredStrength,
+            @Value("${spring.security.password-hashing.target-verification-ms:250}") long targetVerificationMillis,
+            @Value("${spring.security.password-hashing.min-strength:10}") int minStrength
+    ) {
+        if (configuredStrength > 0) {
+            this.strength = configuredStrength;
+            log.info("Configured BCrypt strength {} is used", strength);
+        } else {
+            this.strength = calibrate(measureProbeNanos(), targetVerificationMillis * 1_000_000, minStrength);
+            log.info("BCrypt strength {} was calibrated for target verification time of {} ms", strength, targetVerificationMillis);
+        }
+    }
+
+    static int calibrate(long probeNanos, long targetNanos, int minStrength) {
+        var strength = PROBE_STRENGTH;
+        var expectedNanos = (double) Math.max(probeNanos, 1);
+        while (strength < MAX_STRENGTH && expectedNanos * 2 <= targetNanos) {
+            expectedNanos *= 2;
+            strength++;
+        }
+        while (strength > minStrength && expectedNanos > targetNanos) {
+            expectedNanos /= 2;
+            strength--;
+        }
+
+        return Math.max(strength, minStrength);
+    }
+
+    private static long measureProbeNanos() {
+        var encoder = new BCryptPasswordEncoder(PROBE_STRENGTH);
+        var hash = encoder.encode(PROBE_PASSWORD);
+        var runs = LongStream.range(0, PROBE_RUNS)
+                .map(run -> {
+                    var start = System.nanoTime();
+                    encoder.matches(PROBE_PASSWORD, hash);
+                    return System.nanoTime() - start;
+                })
+                .sorted()
+                .toArray();
+
+        log.debug("BCrypt verifications with strength {} took {} ns", PROBE_STRENGTH, Arrays.toString(runs));
+        return runs[runs.length / 2];
+    }
+}
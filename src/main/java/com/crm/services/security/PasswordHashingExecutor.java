@@ -0,0 +1,156 @@
+package com.crm.services.security;
+
+import com.crm.exceptions.PasswordHashingRejectedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs password hashing and verification on a dedicated bounded pool, so that a burst of logins can occupy
+ * only this pool and not every request thread of the server.
+ * <p>
+ * When all threads are busy and the queue is full, a task is rejected right away with
+ * {@link PasswordHashingRejectedException} instead of making the request thread wait.
+ * <p>
+ * Hashing of new passwords does not share the pool with logins: it runs on the calling thread within its own
+ * permit budget, so that a burst of logins does not reject registrations and password changes. A caller waits up to
+ * {@code caller-wait-ms} for a free permit, concurrent registrations are queued rather than shed.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class PasswordHashingExecutor {
+    private final MeterRegistry meterRegistry;
+
+    @Value("${spring.security.password-hashing.pool-size:0}")
+    private int poolSize;
+    @Value("${spring.security.password-hashing.queue-capacity:64}")
+    private int queueCapacity;
+    @Value("${spring.security.password-hashing.caller-permits:0}")
+    private int callerPermits;
+    @Value("${spring.security.password-hashing.caller-wait-ms:2000}")
+    private long callerWaitMillis;
+
+    private ThreadPoolExecutor executor;
+    private Semaphore callerSemaphore;
+    private Counter rejectedCounter;
+
+    @PostConstruct
+    public void init() {
+        var threads = poolSize > 0 ? poolSize : defaultSize();
+        executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("password-hashing-"),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        callerSemaphore = new Semaphore(callerPermits > 0 ? callerPermits : defaultSize());
+        rejectedCounter = meterRegistry.counter("security.password.hashing.rejected");
+        meterRegistry.gauge("security.password.hashing.queue.size", executor, pool -> pool.getQueue().size());
+        meterRegistry.gauge("security.password.hashing.active", executor, ThreadPoolExecutor::getActiveCount);
+        log.info("Password hashing pool started with {} threads and queue capacity {}", threads, queueCapacity);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Runs the task on the pool and waits for its result.
+     *
+     * @param operation name of the operation, used as a metrics tag
+     * @param task      hashing or verification to run
+     * @return result of the task
+     * @throws PasswordHashingRejectedException if the pool is saturated
+     */
+    public <T> T execute(String operation, Supplier<T> task) {
+        var queueWaitTimer = timer("security.password.hashing.queue.wait", operation);
+        var hashTimer = timer("security.password.hashing.duration", operation);
+        var submittedAt = System.nanoTime();
+
+        try {
+            return executor.submit(() -> {
+                queueWaitTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                return hashTimer.record(task);
+            }).get();
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new PasswordHashingRejectedException("Password hashing capacity is exhausted, try again later");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    /**
+     * Runs the task on the calling thread once one of the caller permits is free and returns its result.
+     *
+     * @param operation name of the operation, used as a metrics tag
+     * @param task      hashing to run
+     * @return result of the task
+     * @throws PasswordHashingRejectedException if no caller permit was freed within {@code caller-wait-ms}
+     */
+    public <T> T executeOnCaller(String operation, Supplier<T> task) {
+        var submittedAt = System.nanoTime();
+        acquireCallerPermit();
+        timer("security.password.hashing.queue.wait", operation)
+                .record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+
+        try {
+            return timer("security.password.hashing.duration", operation).record(task);
+        } finally {
+            callerSemaphore.release();
+        }
+    }
+
+    private void acquireCallerPermit() {
+        try {
+            if (callerSemaphore.tryAcquire(callerWaitMillis, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        }
+
+        rejectedCounter.increment();
+        throw new PasswordHashingRejectedException("Password hashing capacity is exhausted, try again later");
+    }
+
+    /**
+     * Half of the processors, so that hashing leaves room for the rest of the request processing.
+     */
+    private static int defaultSize() {
+        return Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    }
+
+    private Timer timer(String name, String operation) {
+        return Timer.builder(name)
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+}
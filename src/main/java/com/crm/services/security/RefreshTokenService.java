@@ -0,0 +1,187 @@
+package com.crm.services.security;
+
+import com.crm.exceptions.InvalidRefreshTokenException;
+import com.crm.models.IssuedRefreshToken;
+import com.crm.repositories.RefreshTokenRepo;
+import com.crm.repositories.TokenEpochRepo;
+import com.crm.repositories.entities.RefreshToken;
+import com.crm.utils.TokenDigests;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Issues and rotates opaque refresh tokens.
+ * <p>
+ * Only a fingerprint of a refresh token is stored. Every refresh token can be exchanged once: the exchange marks it
+ * as used and issues the next token of the same family. Presenting a used token again means it was stolen
+ * (either the thief or the owner already exchanged it), so the whole family is revoked. A token revoked before it
+ * was used, e.g. on logout, is just rejected.
+ * <p>
+ * Every token carries the token epoch of its owner. A token issued before the last revocation of all tokens of the
+ * owner is not exchanged, even if a concurrent rotation saved it after the revocation had marked the family revoked.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class RefreshTokenService {
+    private static final int TOKEN_BYTES = 32;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final RefreshTokenRepo refreshTokenRepo;
+    private final TokenEpochRepo tokenEpochRepo;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${spring.security.refresh-token.expiration-days:30}")
+    private long expirationDays;
+
+    private Counter reuseCounter;
+
+    @PostConstruct
+    public void init() {
+        reuseCounter = meterRegistry.counter("security.refresh_token.reuse_detected");
+    }
+
+    /**
+     * Starts a new family of refresh tokens for the user.
+     *
+     * @param userName the user name of token owner
+     * @return the refresh token
+     */
+    public IssuedRefreshToken issue(String userName) {
+        log.debug("Issuing refresh token...");
+        return save(userName, UUID.randomUUID().toString(), currentEpoch(userName));
+    }
+
+    /**
+     * Exchanges the refresh token for the next one of its family.
+     *
+     * @param refreshToken the refresh token presented by the client
+     * @return the next refresh token
+     * @throws InvalidRefreshTokenException if the token is unknown, expired, revoked, was already used or was issued
+     *                                      before the last revocation of all tokens of its owner
+     */
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public IssuedRefreshToken rotate(String refreshToken) {
+        log.debug("Rotating refresh token...");
+        var stored = refreshTokenRepo.findByFingerprint(TokenDigests.fingerprint(refreshToken))
+                .orElseThrow(() -> new InvalidRefreshTokenException("Refresh token is not valid"));
+
+        if (!stored.getExpiresAt().isAfter(Instant.now())) {
+            throw new InvalidRefreshTokenException("Refresh token has expired");
+        }
+
+        if (refreshTokenRepo.markUsed(stored.getId()) == 0) {
+            if (!refreshTokenRepo.findUsedById(stored.getId()).orElse(false)) {
+                log.info("Refresh token of user={} was revoked before it was used", stored.getUserName());
+                throw new InvalidRefreshTokenException("Refresh token is not valid");
+            }
+
+            log.warn("Refresh token of user={} was used again, all tokens of its family are revoked", stored.getUserName());
+            reuseCounter.increment();
+            refreshTokenRepo.revokeFamily(stored.getFamilyId());
+            throw new InvalidRefreshTokenException("Refresh token is not valid");
+        }
+
+        if (stored.getEpoch() < currentEpoch(stored.getUserName())) {
+            log.info("Refresh token of user={} was issued before all tokens of the user were revoked", stored.getUserName());
+            throw new InvalidRefreshTokenException("Refresh token is not valid");
+        }
+
+        return save(stored.getUserName(), stored.getFamilyId(), stored.getEpoch());
+    }
+
+    /**
+     * Revokes the refresh token together with all tokens of its family. Unknown tokens are ignored.
+     *
+     * @param refreshToken the refresh token presented by the client
+     */
+    public void revoke(String refreshToken) {
+        refreshTokenRepo.findByFingerprint(TokenDigests.fingerprint(refreshToken))
+                .ifPresent(this::revokeFamily);
+    }
+
+    /**
+     * Revokes the refresh token together with all tokens of its family, if it belongs to the user.
+     * Unknown tokens and tokens of other users are ignored.
+     *
+     * @param refreshToken  the refresh token presented by the client
+     * @param ownerUserName the user name of the authenticated user
+     */
+    public void revoke(String refreshToken, String ownerUserName) {
+        refreshTokenRepo.findByFingerprint(TokenDigests.fingerprint(refreshToken))
+                .filter(stored -> stored.getUserName().equals(ownerUserName))
+                .ifPresent(this::revokeFamily);
+    }
+
+    /**
+     * Revokes all refresh tokens of the user.
+     *
+     * @param userName the user name of tokens owner
+     */
+    public void revokeAll(String userName) {
+        var revoked = refreshTokenRepo.revokeAllByUserName(userName);
+        log.info("{} refresh tokens of user={} were revoked", revoked, userName);
+    }
+
+    @Scheduled(
+            initialDelayString = "${spring.security.refresh-token.sweep-interval-ms:3600000}",
+            fixedDelayString = "${spring.security.refresh-token.sweep-interval-ms:3600000}"
+    )
+    public void sweepExpiredTokens() {
+        try {
+            var deleted = refreshTokenRepo.deleteExpired(Instant.now());
+            if (deleted > 0) {
+                log.info("{} expired refresh tokens were deleted", deleted);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Expired refresh tokens were not deleted, they are kept until the next sweep: {}", e.getMessage());
+        }
+    }
+
+    private void revokeFamily(RefreshToken stored) {
+        log.info("Revoking refresh tokens of user={}", stored.getUserName());
+        refreshTokenRepo.revokeFamily(stored.getFamilyId());
+    }
+
+    private long currentEpoch(String userName) {
+        return tokenEpochRepo.findEpochByUserName(userName).orElse(0L);
+    }
+
+    private IssuedRefreshToken save(String userName, String familyId, long epoch) {
+        var bytes = new byte[TOKEN_BYTES];
+        RANDOM.nextBytes(bytes);
+        var token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        var expiresAt = Instant.now().plus(Duration.ofDays(expirationDays));
+
+        refreshTokenRepo.save(
+                RefreshToken.builder()
+                        .fingerprint(TokenDigests.fingerprint(token))
+                        .familyId(familyId)
+                        .userName(userName)
+                        .expiresAt(expiresAt)
+                        .epoch(epoch)
+                        .build()
+        );
+
+        return IssuedRefreshToken.builder()
+                .ownerUserName(userName)
+                .expiredAt(Date.from(expiresAt))
+                .token(token)
+                .build();
+    }
+}
@@ -0,0 +1,110 @@
+package com.crm.services.security;
+
+import com.crm.repositories.TokenEpochRepo;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+
+/**
+ * Per user token epochs.
+ * <p>
+ * Every token carries the epoch of its owner at issue time. Incrementing the epoch revokes all tokens issued
+ * before at once, so a token is checked with a single comparison instead of a lookup in an ever growing blacklist.
+ * Epochs are cached: this node sees its own increments right away, increments made by other nodes are picked up
+ * when the cached value is refreshed.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class TokenEpochService {
+    private final TokenEpochRepo tokenEpochRepo;
+    private final RefreshTokenService refreshTokenService;
+
+    @Value("${spring.security.token-epoch.cache.max-size:10000}")
+    private long cacheMaxSize;
+    @Value("${spring.security.token-epoch.cache.refresh-seconds:5}")
+    private long refreshSeconds;
+    @Value("${spring.security.jwt.expiration-minutes}")
+    private long expirationTimeMinutes;
+
+    private LoadingCache<String, Long> epochs;
+
+    @PostConstruct
+    public void init() {
+        epochs = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .refreshAfterWrite(Duration.ofSeconds(refreshSeconds))
+                .expireAfterAccess(Duration.ofMinutes(expirationTimeMinutes))
+                .build(this::loadEpoch);
+    }
+
+    /**
+     * @param userName the user name
+     * @return the epoch tokens of the user are issued with
+     */
+    public long currentEpoch(String userName) {
+        return epochs.get(userName);
+    }
+
+    /**
+     * Reads the epoch from the database, bypassing the cache, and refreshes the cached value with it.
+     * Tokens are issued with this epoch, so a token issued right after a revocation made by another node
+     * carries the new epoch and is not rejected once this node picks the revocation up.
+     *
+     * @param userName the user name
+     * @return the stored epoch of the user
+     */
+    public long storedEpoch(String userName) {
+        var epoch = loadEpoch(userName);
+        epochs.put(userName, epoch);
+        return epoch;
+    }
+
+    /**
+     * Verifies whether the token was issued before the last revocation of all tokens of its owner.
+     *
+     * @param userName   the user name from the token
+     * @param tokenEpoch the epoch from the token
+     * @return true if the token is revoked
+     */
+    public boolean isRevoked(String userName, long tokenEpoch) {
+        return tokenEpoch < currentEpoch(userName);
+    }
+
+    /**
+     * Revokes all access and refresh tokens of the user issued so far.
+     *
+     * @param userName the user name
+     */
+    @Transactional
+    public void revokeAll(String userName) {
+        log.info("Revoking all tokens of user={}", userName);
+        if (tokenEpochRepo.increment(userName) == 0) {
+            insertEpoch(userName);
+            tokenEpochRepo.increment(userName);
+        }
+        refreshTokenService.revokeAll(userName);
+
+        epochs.put(userName, loadEpoch(userName));
+    }
+
+    private void insertEpoch(String userName) {
+        try {
+            tokenEpochRepo.insert(userName);
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Token epoch of user={} was inserted by another node", userName);
+        }
+    }
+
+    private long loadEpoch(String userName) {
+        return tokenEpochRepo.findEpochByUserName(userName).orElse(0L);
+    }
+}
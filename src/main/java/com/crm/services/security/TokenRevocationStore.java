@@ -0,0 +1,200 @@
+package com.crm.services.security;
+
+import com.crm.repositories.RevokedTokenRepo;
+import com.crm.repositories.entities.RevokedToken;
+import com.crm.utils.DigestBloomFilter;
+import com.crm.utils.TokenDigests;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revoked tokens shared by all nodes of the application.
+ * <p>
+ * Every revocation is recorded in the {@code revoked_tokens} table. Each node keeps a local copy of the table,
+ * pulled incrementally by id on a schedule, so that checking a token never goes to DB.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class TokenRevocationStore {
+    private static final double PREFILTER_FALSE_POSITIVE_PROBABILITY = 0.01;
+
+    private final RevokedTokenRepo revokedTokenRepo;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${spring.security.token-blacklist.expected-size:100000}")
+    private long expectedSize;
+    @Value("${spring.security.token-blacklist.poll-batch-size:1000}")
+    private int pollBatchSize;
+    @Value("${spring.security.token-blacklist.poll-overlap:100}")
+    private long pollOverlap;
+
+    /**
+     * Fingerprints of revoked tokens mapped to the expiration time (epoch millis) of the token.
+     * An expired token is rejected by its own signature check, so the entry is dropped by the sweeper after that.
+     */
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+
+    /**
+     * Approximate view of {@link #revokedTokens}, answers the common "not revoked" check without the map lookup.
+     * Bloom filters can not remove elements, so it is rebuilt from the map on every sweep.
+     */
+    private volatile DigestBloomFilter prefilter;
+
+    private final Object pollLock = new Object();
+    private long lastSeenId;
+
+    private Counter sweptTokensCounter;
+    private Timer sweepTimer;
+    private Timer pollTimer;
+
+    @PostConstruct
+    public void init() {
+        prefilter = newPrefilter();
+        meterRegistry.gaugeMapSize("security.token.blacklist.size", Tags.empty(), revokedTokens);
+        sweptTokensCounter = meterRegistry.counter("security.token.blacklist.swept");
+        sweepTimer = meterRegistry.timer("security.token.blacklist.sweep");
+        pollTimer = meterRegistry.timer("security.token.blacklist.poll");
+
+        pullRevocations();
+    }
+
+    /**
+     * Revokes the token on all nodes. It is rejected by this node right away and by other nodes after their next poll.
+     *
+     * @param token     the compact JWT string
+     * @param expiresAt expiration time of the token, epoch millis
+     */
+    public void revoke(String token, long expiresAt) {
+        var digest = TokenDigests.digest(token);
+        var fingerprint = TokenDigests.fingerprint(digest);
+        try {
+            revokedTokenRepo.save(
+                    RevokedToken.builder()
+                            .fingerprint(fingerprint)
+                            .expiresAt(Instant.ofEpochMilli(expiresAt))
+                            .build()
+            );
+        } catch (DataIntegrityViolationException e) {
+            log.info("Token was already revoked");
+        }
+
+        addLocally(digest, fingerprint, expiresAt);
+    }
+
+    public boolean isRevoked(String token) {
+        return isRevoked(TokenDigests.digest(token));
+    }
+
+    /**
+     * @param digest {@link TokenDigests#digest(String)} of the token
+     * @return true if the token was revoked
+     */
+    public boolean isRevoked(byte[] digest) {
+        if (!prefilter.mightContain(digest)) {
+            return false;
+        }
+
+        return revokedTokens.containsKey(TokenDigests.fingerprint(digest));
+    }
+
+    @Scheduled(
+            initialDelayString = "${spring.security.token-blacklist.poll-interval-ms:1000}",
+            fixedDelayString = "${spring.security.token-blacklist.poll-interval-ms:1000}"
+    )
+    public void pollRevocations() {
+        try {
+            pollTimer.record(this::pullRevocations);
+        } catch (DataAccessException e) {
+            log.warn("Revoked tokens were not pulled, local copy is kept until the next poll: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(
+            initialDelayString = "${spring.security.token-blacklist.sweep-interval-ms:60000}",
+            fixedDelayString = "${spring.security.token-blacklist.sweep-interval-ms:60000}"
+    )
+    public void sweepExpiredTokens() {
+        sweepTimer.record(() -> removeExpiredTokens(System.currentTimeMillis()));
+    }
+
+    /**
+     * Pulls revocations recorded since the last poll. Ids are assigned on insert, but transactions may commit
+     * out of id order, so the last {@code poll-overlap} ids are read again to pick up such late rows.
+     */
+    void pullRevocations() {
+        synchronized (pollLock) {
+            var now = System.currentTimeMillis();
+            var fromId = Math.max(0, lastSeenId - pollOverlap);
+            var pulled = 0;
+            while (true) {
+                var batch = revokedTokenRepo.findByIdGreaterThanOrderByIdAsc(fromId, Limit.of(pollBatchSize));
+                for (var revokedToken : batch) {
+                    var expiresAt = revokedToken.getExpiresAt().toEpochMilli();
+                    if (expiresAt > now) {
+                        var fingerprint = revokedToken.getFingerprint();
+                        addLocally(TokenDigests.fromFingerprint(fingerprint), fingerprint, expiresAt);
+                    }
+                    fromId = revokedToken.getId();
+                }
+
+                pulled += batch.size();
+                if (batch.size() < pollBatchSize) {
+                    break;
+                }
+            }
+
+            lastSeenId = Math.max(lastSeenId, fromId);
+            log.debug("{} revoked tokens were pulled, last seen id is {}", pulled, lastSeenId);
+        }
+    }
+
+    void removeExpiredTokens(long now) {
+        try {
+            revokedTokenRepo.deleteExpired(Instant.ofEpochMilli(now));
+        } catch (DataAccessException e) {
+            log.warn("Expired revoked tokens were not deleted from DB: {}", e.getMessage());
+        }
+
+        removeExpiredLocally(now);
+    }
+
+    private synchronized void addLocally(byte[] digest, String fingerprint, long expiresAt) {
+        revokedTokens.put(fingerprint, expiresAt);
+        prefilter.put(digest);
+    }
+
+    private synchronized void removeExpiredLocally(long now) {
+        var sizeBefore = revokedTokens.size();
+        revokedTokens.values().removeIf(expiresAt -> expiresAt <= now);
+
+        var rebuilt = newPrefilter();
+        revokedTokens.keySet().forEach(fingerprint -> rebuilt.put(TokenDigests.fromFingerprint(fingerprint)));
+        prefilter = rebuilt;
+
+        var swept = sizeBefore - revokedTokens.size();
+        sweptTokensCounter.increment(swept);
+        if (swept > 0) {
+            log.info("{} expired tokens were removed from blacklist", swept);
+        }
+    }
+
+    private DigestBloomFilter newPrefilter() {
+        return new DigestBloomFilter(expectedSize, PREFILTER_FALSE_POSITIVE_PROBABILITY);
+    }
+}
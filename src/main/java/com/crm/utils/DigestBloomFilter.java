@@ -0,0 +1,65 @@
+package com.crm.utils;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free Bloom filter over cryptographic digests (at least 16 bytes).
+ * <p>
+ * Digest bytes are already uniformly distributed, so the probe positions are taken directly from them
+ * (double hashing over two 64-bit words) and no additional hashing is needed.
+ * {@link #mightContain(byte[])} never returns false for a digest that was put, false positives happen
+ * with the configured probability while the filter holds no more than the expected number of digests.
+ */
+public class DigestBloomFilter {
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    public DigestBloomFilter(long expectedInsertions, double falsePositiveProbability) {
+        var optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2)));
+        var words = (int) Math.max(1, (optimalBits + 63) / 64);
+
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = (long) words * 64;
+        this.hashCount = (int) Math.max(1, Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+    }
+
+    public void put(byte[] digest) {
+        var h1 = readLong(digest, 0);
+        var h2 = readLong(digest, 8);
+        for (int i = 0; i < hashCount; i++) {
+            var index = Math.floorMod(h1 + i * h2, bitCount);
+            var wordIndex = (int) (index >>> 6);
+            var mask = 1L << index;
+
+            long word;
+            do {
+                word = bits.get(wordIndex);
+                if ((word & mask) != 0) {
+                    break;
+                }
+            } while (!bits.compareAndSet(wordIndex, word, word | mask));
+        }
+    }
+
+    public boolean mightContain(byte[] digest) {
+        var h1 = readLong(digest, 0);
+        var h2 = readLong(digest, 8);
+        for (int i = 0; i < hashCount; i++) {
+            var index = Math.floorMod(h1 + i * h2, bitCount);
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static long readLong(byte[] bytes, int offset) {
+        long result = 0;
+        for (int i = offset; i < offset + 8; i++) {
+            result = (result << 8) | (bytes[i] & 0xFF);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,89 @@
+package com.crm.utils;
+
+import lombok.experimental.UtilityClass;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+@UtilityClass
+public class TokenDigests {
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(TokenDigests::newSha256);
+    private static final Base64.Encoder BASE64_URL_ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    /**
+     * Computes SHA-256 digest of the token, so that the full token string does not have to be retained in memory.
+     * The digest is taken over the {@link #canonical(String) canonical} form of the token, so every encoding of the
+     * same signature gets the same digest.
+     *
+     * @param token the compact JWT string
+     * @return 32 bytes digest of the token
+     */
+    public static byte[] digest(String token) {
+        return SHA_256.get().digest(canonical(token).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Returns the token with its signature, the part after the last period, in canonical base64url: without padding
+     * and with unused trailing bits set to zero. Base64url decoders accept several encodings of the same signature
+     * bytes, all of them verify. A token without a period or with a signature that can not be decoded is returned
+     * as is, the signature check rejects it anyway.
+     *
+     * @param token the compact JWT string or an opaque token
+     * @return the same instance if the token is already canonical, otherwise its canonical form
+     */
+    public static String canonical(String token) {
+        var signatureStart = token.lastIndexOf('.') + 1;
+        if (signatureStart == 0) {
+            return token;
+        }
+
+        byte[] signature;
+        try {
+            signature = Base64.getUrlDecoder().decode(token.substring(signatureStart));
+        } catch (IllegalArgumentException e) {
+            return token;
+        }
+
+        var encoded = BASE64_URL_ENCODER.encodeToString(signature);
+        if (token.length() - signatureStart == encoded.length() && token.startsWith(encoded, signatureStart)) {
+            return token;
+        }
+        return token.substring(0, signatureStart) + encoded;
+    }
+
+    /**
+     * @param token the compact JWT string
+     * @return true if the signature of the token is encoded in canonical base64url
+     */
+    public static boolean isCanonical(String token) {
+        return canonical(token) == token;
+    }
+
+    /**
+     * Builds a compact, fixed-length fingerprint of the token (Base64url encoded SHA-256 digest).
+     *
+     * @param token the compact JWT string
+     * @return fingerprint of the token
+     */
+    public static String fingerprint(String token) {
+        return fingerprint(digest(token));
+    }
+
+    public static String fingerprint(byte[] digest) {
+        return BASE64_URL_ENCODER.encodeToString(digest);
+    }
+
+    public static byte[] fromFingerprint(String fingerprint) {
+        return Base64.getUrlDecoder().decode(fingerprint);
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported by the JVM", e);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.crm.filters;
+
+import com.crm.services.security.JwtService;
+import com.crm.services.security.TokenEpochService;
+import com.crm.services.security.TokenRevocationStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JwtAuthenticationFilterTest {
+    private static final String SECRET_KEY = "70337336763979244226452948404D635166546A576E5A7134743777217A2543";
+
+    @Mock
+    private UserDetailsService userDetailsService;
+    @Mock
+    private TokenRevocationStore tokenRevocationStore;
+    @Mock
+    private TokenEpochService tokenEpochService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private JwtService jwtService;
+    private JwtAuthenticationFilter filter;
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", SECRET_KEY);
+        ReflectionTestUtils.setField(jwtService, "expirationTimeMinutes", 60L);
+        ReflectionTestUtils.setField(jwtService, "claimsCacheMaxSize", 100L);
+        jwtService.init();
+
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new JwtAuthenticationFilter(
+                jwtService, userDetailsService, tokenRevocationStore, tokenEpochService, meterRegistry
+        );
+        ReflectionTestUtils.setField(filter, "stateless", true);
+        filter.init();
+
+        var userDetails = User.withUsername("testUser").password("password").roles("TRAINEE").build();
+        token = jwtService.generateToken(userDetails, 1).getToken();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Should authenticate valid token from its claims and record every stage")
+    void doFilter_ShouldAuthenticate_WhenTokenIsValid() throws Exception {
+        // Given
+        var response = new MockHttpServletResponse();
+        var chain = new MockFilterChain();
+
+        // When
+        filter.doFilter(bearerRequest("/api/v1/trainee/testUser", token), response, chain);
+
+        // Then
+        var authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        assertEquals("testUser", authentication.getName());
+        assertNotNull(chain.getRequest());
+        verifyNoInteractions(userDetailsService);
+        for (var stage : new String[]{"revocation", "claims", "epoch", "principal"}) {
+            assertEquals(1, meterRegistry.get("security.authentication.stage").tag("stage", stage).timer().count());
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject revoked token before verifying its signature")
+    void doFilter_ShouldReject_WhenTokenIsRevoked() throws Exception {
+        // Given
+        var response = new MockHttpServletResponse();
+        var chain = new MockFilterChain();
+        when(tokenRevocationStore.isRevoked(any(byte[].class))).thenReturn(true);
+
+        // When
+        filter.doFilter(bearerRequest("/api/v1/trainee/testUser", token), response, chain);
+
+        // Then
+        assertEquals(401, response.getStatus());
+        assertNull(chain.getRequest());
+        assertEquals(0, meterRegistry.get("security.authentication.stage").tag("stage", "claims").timer().count());
+        verifyNoInteractions(tokenEpochService);
+    }
+
+    @Test
+    @DisplayName("Should reject token issued before tokens of its owner were revoked")
+    void doFilter_ShouldReject_WhenTokenEpochIsOutdated() throws Exception {
+        // Given
+        var response = new MockHttpServletResponse();
+        var chain = new MockFilterChain();
+        when(tokenEpochService.isRevoked("testUser", 1)).thenReturn(true);
+
+        // When
+        filter.doFilter(bearerRequest("/api/v1/trainee/testUser", token), response, chain);
+
+        // Then
+        assertEquals(401, response.getStatus());
+        assertNull(chain.getRequest());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    @DisplayName("Should reject token with invalid signature")
+    void doFilter_ShouldReject_WhenSignatureIsInvalid() throws Exception {
+        // Given
+        var response = new MockHttpServletResponse();
+        var chain = new MockFilterChain();
+        var tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        // When
+        filter.doFilter(bearerRequest("/api/v1/trainee/testUser", tampered), response, chain);
+
+        // Then
+        assertEquals(401, response.getStatus());
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    @DisplayName("Should check revocation of the canonical token and reject re-encoded signature")
+    void doFilter_ShouldReject_WhenSignatureIsReencoded() throws Exception {
+        // Given
+        var response = new MockHttpServletResponse();
+        var chain = new MockFilterChain();
+        var digest = ArgumentCaptor.forClass(byte[].class);
+        filter.doFilter(bearerRequest("/api/v1/trainee/testUser", token), new MockHttpServletResponse(), new MockFilterChain());
+        SecurityContextHolder.clearContext();
+
+        // When
+        filter.doFilter(bearerRequest("/api/v1/trainee/testUser", token + "="), response, chain);
+
+        // Then
+        assertEquals(401, response.getStatus());
+        assertNull(chain.getRequest());
+        verify(tokenRevocationStore, times(2)).isRevoked(digest.capture());
+        assertArrayEquals(digest.getAllValues().get(0), digest.getAllValues().get(1));
+    }
+
+    @Test
+    @DisplayName("Should not filter public endpoints")
+    void shouldNotFilter_ShouldSkipPublicEndpoints() {
+        // Given
+        var login = request("POST", "/api/v1/auth/login");
+        var registration = request("POST", "/api/v1/trainee");
+        var profile = request("GET", "/api/v1/trainee/testUser");
+
+        // When - Then
+        assertTrue(filter.shouldNotFilter(login));
+        assertTrue(filter.shouldNotFilter(registration));
+        assertFalse(filter.shouldNotFilter(profile));
+    }
+
+    private static MockHttpServletRequest request(String method, String uri) {
+        var request = new MockHttpServletRequest(method, uri);
+        request.setServletPath(uri);
+        return request;
+    }
+
+    private static MockHttpServletRequest bearerRequest(String uri, String token) {
+        var request = request("GET", uri);
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+}
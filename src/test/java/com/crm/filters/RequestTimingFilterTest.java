@@ -0,0 +1,107 @@
+package com.crm.filters;
+
+import com.crm.metrics.timing.RequestTiming;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestTimingFilterTest {
+    private SimpleMeterRegistry meterRegistry;
+    private RequestTimingFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new RequestTimingFilter(meterRegistry);
+        ReflectionTestUtils.setField(filter, "serverTimingEnabled", true);
+    }
+
+    @Test
+    @DisplayName("Should record every phase per route and report it in Server-Timing header")
+    void doFilter_ShouldRecordPhases() throws Exception {
+        //Given
+        var request = new MockHttpServletRequest("GET", "/api/v1/trainee/trainings");
+        var response = new MockHttpServletResponse();
+
+        //When
+        filter.doFilter(request, response, (req, res) -> {
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/v1/trainee/trainings");
+            var timing = RequestTiming.current();
+            timing.addAuth(TimeUnit.MILLISECONDS.toNanos(2));
+            timing.addDb(TimeUnit.MILLISECONDS.toNanos(3));
+            timing.addConnectionAcquisition(TimeUnit.MILLISECONDS.toNanos(1));
+            timing.addConnectionHold(TimeUnit.MILLISECONDS.toNanos(4));
+            res.getWriter().write("[]");
+        });
+
+        //Then
+        var serverTiming = response.getHeader(RequestTimingFilter.SERVER_TIMING);
+        assertNotNull(serverTiming);
+        assertTrue(serverTiming.startsWith("auth;dur=2.0, db;dur=3.0, total;dur="));
+        assertEquals("[]", response.getContentAsString());
+        assertNull(RequestTiming.current());
+        for (var phase : new String[]{"auth", "db"}) {
+            var timer = meterRegistry.get("http.server.requests.phases")
+                    .tags("uri", "/api/v1/trainee/trainings", "method", "GET", "status", "200", "phase", phase)
+                    .timer();
+            assertEquals(1, timer.count());
+        }
+        var hold = meterRegistry.get("db.connections.hold").tag("uri", "/api/v1/trainee/trainings").timer();
+        assertEquals(4, hold.totalTime(TimeUnit.MILLISECONDS));
+        assertEquals(1, meterRegistry.get("db.connections.acquire").timer().count());
+    }
+
+    @Test
+    @DisplayName("Should add Server-Timing header before the response is committed without buffering the body")
+    void doFilter_ShouldAddHeaderBeforeCommit() throws Exception {
+        //Given
+        var request = new MockHttpServletRequest("GET", "/api/v1/trainee/trainings");
+        var response = new MockHttpServletResponse();
+        var headerAtCommit = new AtomicReference<String>();
+
+        //When
+        filter.doFilter(request, response, (req, res) -> {
+            RequestTiming.current().addAuth(TimeUnit.MILLISECONDS.toNanos(2));
+            res.getWriter().write("[");
+            res.flushBuffer();
+            headerAtCommit.set(response.getHeader(RequestTimingFilter.SERVER_TIMING));
+            assertEquals("[", response.getContentAsString());
+            RequestTiming.current().addDb(TimeUnit.MILLISECONDS.toNanos(3));
+            res.getWriter().write("]");
+        });
+
+        //Then
+        assertTrue(headerAtCommit.get().startsWith("auth;dur=2.0, total;dur="));
+        assertEquals(headerAtCommit.get(), response.getHeader(RequestTimingFilter.SERVER_TIMING));
+        assertEquals("[]", response.getContentAsString());
+        assertEquals(1, meterRegistry.get("http.server.requests.phases").tags("uri", "UNKNOWN", "phase", "db")
+                .timer().count());
+    }
+
+    @Test
+    @DisplayName("Should record phases without buffering body when Server-Timing is disabled")
+    void doFilter_ShouldSkipHeader_WhenServerTimingIsDisabled() throws Exception {
+        //Given
+        ReflectionTestUtils.setField(filter, "serverTimingEnabled", false);
+        var request = new MockHttpServletRequest("GET", "/api/v1/unknown");
+        var response = new MockHttpServletResponse();
+
+        //When
+        filter.doFilter(request, response, (req, res) -> RequestTiming.current().addAuth(1_000));
+
+        //Then
+        assertNull(response.getHeader(RequestTimingFilter.SERVER_TIMING));
+        assertEquals(1, meterRegistry.get("http.server.requests.phases").tags("uri", "UNKNOWN", "phase", "auth")
+                .timer().count());
+    }
+}
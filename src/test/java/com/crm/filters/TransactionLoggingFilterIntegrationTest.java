@@ -0,0 +1,54 @@
+package com.crm.filters;
+
+import com.crm.filters.accesslog.AccessLogRecord;
+import com.crm.filters.accesslog.AccessLogWriter;
+import com.crm.init.DataInitializer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class TransactionLoggingFilterIntegrationTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @MockitoBean
+    private AccessLogWriter accessLogWriter;
+    @MockitoBean
+    private DataInitializer dataInitializer;
+
+    @Test
+    @DisplayName("Should tag and log a request rejected by the security filter chain")
+    void doFilter_ShouldLogRequestRejectedBySecurityChain() throws Exception {
+        //Given
+        var transactionId = "01HF0000000000000000000401";
+
+        //When
+        mockMvc.perform(get("/api/v1/trainee/john")
+                        .header("transactionId", transactionId)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer not-a-token"))
+                .andExpect(status().isUnauthorized())
+                .andExpect(header().string("transactionId", transactionId));
+
+        //Then
+        var record = ArgumentCaptor.forClass(AccessLogRecord.class);
+        verify(accessLogWriter).write(record.capture());
+        assertEquals(401, record.getValue().status());
+        assertEquals(transactionId, record.getValue().transactionId());
+        assertEquals("/api/v1/trainee/john", record.getValue().uri());
+    }
+}
@@ -0,0 +1,69 @@
+package com.crm.filters;
+
+import com.crm.filters.accesslog.AccessLogRecord;
+import com.crm.filters.accesslog.AccessLogWriter;
+import com.crm.filters.transactionid.TransactionIdGenerator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionLoggingFilterTest {
+    @Mock
+    private AccessLogWriter accessLogWriter;
+    @Mock
+    private TransactionIdGenerator transactionIdGenerator;
+    @InjectMocks
+    private TransactionLoggingFilter filter;
+
+    @Test
+    @DisplayName("Should create transaction id and propagate it to MDC, response header and access log")
+    void doFilter_ShouldPropagateGeneratedTransactionId() throws Exception {
+        //Given
+        when(transactionIdGenerator.nextId()).thenReturn("01HF0000000000000000000000");
+        var request = new MockHttpServletRequest("GET", "/api/v1/trainee/john");
+        var response = new MockHttpServletResponse();
+        var idInMdc = new AtomicReference<String>();
+
+        //When
+        filter.doFilter(request, response, (req, res) -> idInMdc.set(MDC.get("transactionId")));
+
+        //Then
+        var record = ArgumentCaptor.forClass(AccessLogRecord.class);
+        verify(accessLogWriter).write(record.capture());
+        assertEquals("01HF0000000000000000000000", idInMdc.get());
+        assertEquals("01HF0000000000000000000000", response.getHeader("transactionId"));
+        assertEquals("01HF0000000000000000000000", record.getValue().transactionId());
+        assertEquals(200, record.getValue().status());
+        assertNull(MDC.get("transactionId"));
+    }
+
+    @Test
+    @DisplayName("Should keep transaction id of incoming request")
+    void doFilter_ShouldKeepIncomingTransactionId() throws Exception {
+        //Given
+        var request = new MockHttpServletRequest("GET", "/api/v1/trainee/john");
+        request.addHeader("transactionId", "incoming-id");
+        var response = new MockHttpServletResponse();
+
+        //When
+        filter.doFilter(request, response, (req, res) -> {
+        });
+
+        //Then
+        assertEquals("incoming-id", response.getHeader("transactionId"));
+        verifyNoInteractions(transactionIdGenerator);
+    }
+}
@@ -0,0 +1,77 @@
+package com.crm.filters.accesslog;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccessLogRingBufferTest {
+
+    @Test
+    @DisplayName("Should return records in order and reject them when full")
+    void offer_ShouldRejectRecord_WhenBufferIsFull() {
+        //Given
+        var buffer = new AccessLogRingBuffer(3);
+
+        //When
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(record(i)));
+        }
+        var rejected = !buffer.offer(record(4));
+        var first = buffer.poll();
+        var acceptedAfterPoll = buffer.offer(record(5));
+
+        //Then
+        assertEquals(4, buffer.capacity());
+        assertTrue(rejected);
+        assertEquals("0", first.transactionId());
+        assertTrue(acceptedAfterPoll);
+        for (var expected : new String[]{"1", "2", "3", "5"}) {
+            assertEquals(expected, buffer.poll().transactionId());
+        }
+        assertNull(buffer.poll());
+    }
+
+    @Test
+    @DisplayName("Should not lose records offered by many threads at once")
+    void offer_ShouldKeepAllRecords_WhenOfferedConcurrently() throws Exception {
+        //Given
+        var buffer = new AccessLogRingBuffer(4096);
+        var threads = 4;
+        var perThread = 1000;
+        var start = new CountDownLatch(1);
+        var executor = Executors.newFixedThreadPool(threads);
+
+        //When
+        for (int t = 0; t < threads; t++) {
+            var offset = t * perThread;
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    buffer.offer(record(offset + i));
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        //Then
+        var ids = new HashSet<String>();
+        AccessLogRecord record;
+        while ((record = buffer.poll()) != null) {
+            ids.add(record.transactionId());
+        }
+        assertEquals(threads * perThread, ids.size());
+    }
+
+    private static AccessLogRecord record(int id) {
+        return new AccessLogRecord(0, "GET", "/api/v1/trainee", 200, 1000, String.valueOf(id));
+    }
+}
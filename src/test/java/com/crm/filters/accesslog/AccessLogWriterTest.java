@@ -0,0 +1,75 @@
+package com.crm.filters.accesslog;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccessLogWriterTest {
+    private SimpleMeterRegistry meterRegistry;
+    private ListAppender<ILoggingEvent> appender;
+    private AccessLogWriter accessLogWriter;
+
+    @BeforeEach
+    void setUp() {
+        appender = new ListAppender<>();
+        appender.start();
+        ((Logger) LoggerFactory.getLogger("access")).addAppender(appender);
+
+        meterRegistry = new SimpleMeterRegistry();
+        accessLogWriter = new AccessLogWriter(meterRegistry);
+        ReflectionTestUtils.setField(accessLogWriter, "bufferSize", 64);
+        ReflectionTestUtils.setField(accessLogWriter, "batchSize", 8);
+        ReflectionTestUtils.setField(accessLogWriter, "successSampleRate", 0.0);
+        ReflectionTestUtils.setField(accessLogWriter, "idleWaitMillis", 5L);
+        accessLogWriter.init();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        accessLogWriter.shutdown();
+        ((Logger) LoggerFactory.getLogger("access")).detachAppender(appender);
+    }
+
+    @Test
+    @DisplayName("Should write error responses in background and skip success responses out of sample")
+    void write_ShouldWriteSampledRecordsInBackground() throws InterruptedException {
+        //Given
+        var success = new AccessLogRecord(0, "GET", "/api/v1/trainee/john", 200, 1_500_000, "tx-1");
+        var failure = new AccessLogRecord(0, "GET", "/api/v1/trainee/john", 404, 2_000_000, "tx-2");
+
+        //When
+        accessLogWriter.write(success);
+        accessLogWriter.write(failure);
+        accessLogWriter.shutdown();
+
+        //Then
+        assertEquals(1, appender.list.size());
+        var line = appender.list.get(0).getFormattedMessage();
+        assertTrue(line.contains("transactionId=tx-2"));
+        assertTrue(line.contains("method=GET uri=/api/v1/trainee/john status=404 durationMs=2.0"));
+        assertNotEquals(Thread.currentThread().getName(), appender.list.get(0).getThreadName());
+        assertEquals(1, meterRegistry.get("access.log.written").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should sample success responses with configured rate")
+    void isSampled_ShouldFollowRate() {
+        //Given
+        ReflectionTestUtils.setField(accessLogWriter, "successSampleRate", 1.0);
+
+        //When - Then
+        assertTrue(accessLogWriter.isSampled(200));
+        ReflectionTestUtils.setField(accessLogWriter, "successSampleRate", 0.0);
+        assertFalse(accessLogWriter.isSampled(200));
+        assertTrue(accessLogWriter.isSampled(500));
+    }
+}
@@ -0,0 +1,68 @@
+package com.crm.filters.transactionid;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UlidTransactionIdGeneratorTest {
+    private UlidTransactionIdGenerator generator;
+
+    @BeforeEach
+    void setUp() {
+        generator = new UlidTransactionIdGenerator();
+        ReflectionTestUtils.setField(generator, "nodeId", 7);
+        generator.init();
+    }
+
+    @Test
+    @DisplayName("Should encode time, node and random part as 26 Crockford base32 characters")
+    void encode_ShouldPlaceEveryPart() {
+        //When - Then
+        assertEquals("00000000000000000000000000", UlidTransactionIdGenerator.encode(0, 0, 0));
+        assertEquals("0000000000000000000000000Z", UlidTransactionIdGenerator.encode(0, 0, 31));
+        assertEquals("7ZZZZZZZZZZZZZZZZZZZZZZZZZ", UlidTransactionIdGenerator.encode(-1L >>> 16, 0xFFFF, -1L));
+        assertEquals("0000000000003G000000000000", UlidTransactionIdGenerator.encode(0, 7, 0));
+    }
+
+    @Test
+    @DisplayName("Should order ids by creation time")
+    void encode_ShouldSortByTime() {
+        //Given
+        var earlier = UlidTransactionIdGenerator.encode(1_700_000_000_000L, 0xFFFF, -1L);
+        var later = UlidTransactionIdGenerator.encode(1_700_000_000_001L, 0, 0);
+
+        //When - Then
+        assertTrue(earlier.compareTo(later) < 0);
+    }
+
+    @Test
+    @DisplayName("Should create unique ids from many threads")
+    void nextId_ShouldBeUnique_WhenCalledConcurrently() {
+        //Given
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+
+        //When
+        IntStream.range(0, 100_000).parallel().forEach(i -> ids.add(generator.nextId()));
+
+        //Then
+        assertEquals(100_000, ids.size());
+        assertTrue(ids.stream().allMatch(id -> id.length() == UlidTransactionIdGenerator.LENGTH));
+    }
+
+    @Test
+    @DisplayName("Should reject node id that does not fit into 16 bits")
+    void init_ShouldFail_WhenNodeIdIsTooBig() {
+        //Given
+        ReflectionTestUtils.setField(generator, "nodeId", 1 << 16);
+
+        //When - Then
+        assertThrows(IllegalStateException.class, generator::init);
+    }
+}
@@ -0,0 +1,161 @@
+package com.crm.indicators;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.pool.HikariPool;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DatabaseHealthIndicatorTest {
+    private static final long PROBE_TIMEOUT_MILLIS = 500;
+
+    @Mock
+    private HikariDataSource dataSource;
+    @Mock
+    private HikariPool poolBean;
+    @Mock
+    private Connection connection;
+    @Mock
+    private Statement statement;
+    @Mock
+    private ResultSet resultSet;
+
+    private DatabaseHealthIndicator indicator;
+
+    @BeforeEach
+    void setUp() {
+        indicator = new DatabaseHealthIndicator(dataSource);
+        ReflectionTestUtils.setField(indicator, "saturationThreshold", 0.8);
+        ReflectionTestUtils.setField(indicator, "probeTimeoutMillis", PROBE_TIMEOUT_MILLIS);
+        when(dataSource.getHikariPoolMXBean()).thenReturn(poolBean);
+        when(dataSource.getMaximumPoolSize()).thenReturn(10);
+    }
+
+    @Test
+    @DisplayName("Should be up with pool statistics when pool has room")
+    void check_ShouldBeUp_WhenPoolHasRoom() throws Exception {
+        //Given
+        pool(2, 0);
+        selectOneReturns(1);
+
+        //When
+        var health = indicator.check();
+
+        //Then
+        assertEquals(Status.UP, health.getStatus());
+        assertEquals(2, health.getDetails().get("active"));
+        assertEquals(0, health.getDetails().get("pending"));
+        assertEquals("Available", health.getDetails().get("Database"));
+        verify(poolBean).getConnection(PROBE_TIMEOUT_MILLIS);
+        verify(statement).setQueryTimeout(1);
+    }
+
+    @Test
+    @DisplayName("Should be degraded without borrowing a connection when threads wait for the pool")
+    void check_ShouldBeDegraded_WhenPoolIsExhausted() throws Exception {
+        //Given
+        pool(10, 3);
+
+        //When
+        var health = indicator.check();
+
+        //Then
+        assertEquals(DatabaseHealthIndicator.DEGRADED, health.getStatus());
+        assertEquals(3, health.getDetails().get("pending"));
+        verify(poolBean, never()).getConnection(anyLong());
+        verify(dataSource, never()).getConnection();
+    }
+
+    @Test
+    @DisplayName("Should be degraded when share of active connections reaches the threshold")
+    void check_ShouldBeDegraded_WhenPoolIsNearlyFull() throws Exception {
+        //Given
+        pool(8, 0);
+        selectOneReturns(1);
+
+        //When
+        var health = indicator.check();
+
+        //Then
+        assertEquals(DatabaseHealthIndicator.DEGRADED, health.getStatus());
+        assertEquals("Available", health.getDetails().get("Database"));
+    }
+
+    @Test
+    @DisplayName("Should be degraded when pool fills up before the probe gets a connection")
+    void check_ShouldBeDegraded_WhenProbeTimesOutWaitingForConnection() throws Exception {
+        //Given
+        pool(2, 0);
+        when(poolBean.getConnection(PROBE_TIMEOUT_MILLIS))
+                .thenThrow(new SQLTransientConnectionException("Connection is not available, request timed out after 500ms"));
+
+        //When
+        var health = indicator.check();
+
+        //Then
+        assertEquals(DatabaseHealthIndicator.DEGRADED, health.getStatus());
+        assertEquals("No connection within 500 ms", health.getDetails().get("Database"));
+    }
+
+    @Test
+    @DisplayName("Should be down when the probe times out because database is not reachable")
+    void check_ShouldBeDown_WhenProbeTimesOutWithConnectionFailure() throws Exception {
+        //Given
+        pool(0, 0);
+        when(poolBean.getConnection(PROBE_TIMEOUT_MILLIS)).thenThrow(new SQLTransientConnectionException(
+                "Connection is not available, request timed out after 500ms", new SQLException("Connection refused")));
+
+        //When
+        var health = indicator.check();
+
+        //Then
+        assertEquals(Status.DOWN, health.getStatus());
+    }
+
+    @Test
+    @DisplayName("Should be down when database is not reachable")
+    void check_ShouldBeDown_WhenQueryFails() throws Exception {
+        //Given
+        pool(0, 0);
+        when(poolBean.getConnection(PROBE_TIMEOUT_MILLIS)).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery("SELECT 1")).thenThrow(new SQLException("Connection refused"));
+
+        //When
+        var health = indicator.check();
+
+        //Then
+        assertEquals(Status.DOWN, health.getStatus());
+    }
+
+    private void pool(int active, int pending) {
+        when(poolBean.getActiveConnections()).thenReturn(active);
+        when(poolBean.getThreadsAwaitingConnection()).thenReturn(pending);
+        when(poolBean.getIdleConnections()).thenReturn(10 - active);
+        when(poolBean.getTotalConnections()).thenReturn(10);
+    }
+
+    private void selectOneReturns(int result) throws SQLException {
+        when(poolBean.getConnection(PROBE_TIMEOUT_MILLIS)).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery("SELECT 1")).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getInt(1)).thenReturn(result);
+    }
+}
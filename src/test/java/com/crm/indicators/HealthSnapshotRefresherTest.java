@@ -0,0 +1,129 @@
+package com.crm.indicators;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HealthSnapshotRefresherTest {
+    private final CountDownLatch release = new CountDownLatch(1);
+    private HealthSnapshotRefresher refresher;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        refresher.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should answer from snapshot and refresh it in background")
+    void health_ShouldReturnSnapshot() throws InterruptedException {
+        //Given
+        var fast = new TestIndicator(() -> Health.up().build(), 1000);
+        refresher = start(fast);
+
+        //When
+        var beforeRefresh = fast.health();
+        refresher.refresh();
+        var refreshed = awaitStatus(fast, Status.UP);
+        fast.health();
+        fast.health();
+
+        //Then
+        assertEquals(Status.UNKNOWN, beforeRefresh.getStatus());
+        assertEquals(Status.UP, refreshed.getStatus());
+        assertEquals(1, fast.checks.get());
+    }
+
+    @Test
+    @DisplayName("Should report hung check as down without blocking other checks or starting it again")
+    void refresh_ShouldTimeOutHungCheck() throws InterruptedException {
+        //Given
+        var hung = new TestIndicator(() -> {
+            awaitRelease();
+            return Health.up().build();
+        }, 50);
+        var fast = new TestIndicator(() -> Health.up().build(), 1000);
+        refresher = start(hung, fast);
+
+        //When
+        refresher.refresh();
+        var fastHealth = awaitStatus(fast, Status.UP);
+        var hungHealth = awaitStatus(hung, Status.DOWN);
+        refresher.refresh();
+
+        //Then
+        assertEquals(Status.UP, fastHealth.getStatus());
+        assertEquals(Status.DOWN, hungHealth.getStatus());
+        assertTrue(hungHealth.getDetails().get("error").toString().contains("timed out"));
+        assertEquals(1, hung.checks.get());
+    }
+
+    @Test
+    @DisplayName("Should report failed check as down")
+    void refresh_ShouldReportFailure() throws InterruptedException {
+        //Given
+        var failing = new TestIndicator(() -> {
+            throw new IllegalStateException("boom");
+        }, 1000);
+        refresher = start(failing);
+
+        //When
+        refresher.refresh();
+
+        //Then
+        assertEquals(Status.DOWN, awaitStatus(failing, Status.DOWN).getStatus());
+    }
+
+    private static HealthSnapshotRefresher start(CachedHealthIndicator... indicators) {
+        var refresher = new HealthSnapshotRefresher(List.of(indicators));
+        refresher.init();
+        return refresher;
+    }
+
+    private static Health awaitStatus(CachedHealthIndicator indicator, Status status) throws InterruptedException {
+        for (int i = 0; i < 200 && !status.equals(indicator.health().getStatus()); i++) {
+            Thread.sleep(10);
+        }
+        return indicator.health();
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class TestIndicator extends CachedHealthIndicator {
+        private final AtomicInteger checks = new AtomicInteger();
+        private final Supplier<Health> check;
+        private final long timeoutMillis;
+
+        TestIndicator(Supplier<Health> check, long timeoutMillis) {
+            this.check = check;
+            this.timeoutMillis = timeoutMillis;
+        }
+
+        @Override
+        protected Health check() {
+            checks.incrementAndGet();
+            return check.get();
+        }
+
+        @Override
+        protected long timeoutMillis() {
+            return timeoutMillis;
+        }
+    }
+}
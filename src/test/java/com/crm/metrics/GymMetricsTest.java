@@ -0,0 +1,83 @@
+package com.crm.metrics;
+
+import com.crm.DbTestBase;
+import com.crm.repositories.entities.Trainee;
+import com.crm.repositories.entities.Training;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class GymMetricsTest extends DbTestBase {
+    @Autowired
+    private GymMetrics gymMetrics;
+    @Autowired
+    private EntityCounters entityCounters;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    @DisplayName("Gauges should follow committed inserts and removes and ignore rolled back ones")
+    void gauges_ShouldFollowCommittedChanges() {
+        //Given
+        gymMetrics.reconcileCounts();
+        var trainings = gauge("gym.trainings.count");
+        var trainees = gauge("gym.trainees.count");
+
+        //When
+        transactionTemplate.executeWithoutResult(status -> {
+            trainerRepo.save(testTrainer);
+            traineeRepo.save(testTrainee);
+            trainingRepo.save(testTraining);
+        });
+        var afterInsert = gauge("gym.trainings.count");
+        var traineesAfterInsert = gauge("gym.trainees.count");
+        transactionTemplate.executeWithoutResult(status -> {
+            trainingRepo.save(Training.builder()
+                    .trainee(testTrainee)
+                    .trainer(testTrainer)
+                    .trainingName("RolledBack")
+                    .trainingType(testTraining.getTrainingType())
+                    .trainingDate(testTraining.getTrainingDate())
+                    .trainingDuration(testTraining.getTrainingDuration())
+                    .build());
+            status.setRollbackOnly();
+        });
+        var afterRollback = gauge("gym.trainings.count");
+        transactionTemplate.executeWithoutResult(status ->
+                traineeRepo.delete(traineeRepo.findById(testTrainee.getId()).orElseThrow()));
+
+        //Then
+        assertEquals(trainings + 1, afterInsert);
+        assertEquals(trainees + 1, traineesAfterInsert);
+        assertEquals(afterInsert, afterRollback);
+        assertEquals(trainees, gauge("gym.trainees.count"));
+        assertEquals(trainings, gauge("gym.trainings.count"));
+    }
+
+    @Test
+    @DisplayName("Reconciliation should reset counters to the counts in DB")
+    void reconcileCounts_ShouldFixDrift() {
+        //Given
+        traineeRepo.save(testTrainee);
+        entityCounters.counter(Trainee.class).set(42);
+
+        //When
+        gymMetrics.reconcileCounts();
+
+        //Then
+        assertEquals(traineeRepo.count(), (long) gauge("gym.trainees.count"));
+    }
+
+    private double gauge(String name) {
+        return meterRegistry.get(name).gauge().value();
+    }
+}
@@ -0,0 +1,54 @@
+package com.crm.metrics.timing;
+
+import com.crm.DbTestBase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DbTimingSessionListenerTest extends DbTestBase {
+
+    @AfterEach
+    void unbind() {
+        RequestTiming.unbind();
+    }
+
+    @Test
+    @DisplayName("Should add JDBC time of the session to the timing of the current request")
+    void query_ShouldBeCountedAsDbPhase() {
+        //Given
+        var timing = RequestTiming.of(new MockHttpServletRequest());
+        RequestTiming.bind(timing);
+
+        //When
+        traineeRepo.findByUserName(testTrainee.getUserName());
+
+        //Then
+        assertTrue(timing.phases(System.nanoTime()).get(RequestTiming.Phase.DB) > 0);
+    }
+
+    @Test
+    @DisplayName("Should add time waiting for a connection and time holding it to the current request")
+    void connectionEvents_ShouldBeCountedAsAcquisitionAndHold() throws InterruptedException {
+        //Given
+        var timing = RequestTiming.of(new MockHttpServletRequest());
+        var listener = new DbTimingSessionListener();
+        RequestTiming.bind(timing);
+
+        //When
+        listener.jdbcConnectionAcquisitionStart();
+        listener.jdbcConnectionAcquisitionEnd();
+        Thread.sleep(5);
+        listener.jdbcConnectionReleaseStart();
+        listener.jdbcConnectionReleaseEnd();
+
+        //Then
+        assertEquals(1, timing.connectionAcquisitions());
+        assertTrue(timing.connectionAcquisitionNanos() > 0);
+        assertTrue(timing.connectionHoldNanos() >= TimeUnit.MILLISECONDS.toNanos(5));
+    }
+}
@@ -1,10 +1,13 @@
 package com.crm.repositories.impl;
 
 import com.crm.DbTestBase;
+import com.crm.enums.TrainingType;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.time.LocalDate;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class TraineeRepoImplTest extends DbTestBase {
@@ -101,6 +104,32 @@ public class TraineeRepoImplTest extends DbTestBase {
         assertEquals(testTraining.getTrainingName(), trainings.get(0).getTrainingName());
     }
 
+    @Test
+    @DisplayName("Get trainee trainings by all criteria and verify that every filter applies")
+    void getTraineeTrainingsByCriteria_ShouldApplyEveryFilter() {
+        // Given
+        traineeRepo.save(testTrainee);
+        trainerRepo.save(testTrainer);
+        trainingRepo.save(testTraining);
+        var today = LocalDate.now();
+
+        // When
+        var matching = traineeRepo.getTraineeTrainingsByCriteria(
+                testTrainee.getUserName(), today.minusDays(1), today.plusDays(1), testTrainer.getUserName(), TrainingType.FITNESS
+        );
+        var otherType = traineeRepo.getTraineeTrainingsByCriteria(
+                testTrainee.getUserName(), today.minusDays(1), null, testTrainer.getUserName(), TrainingType.YOGA
+        );
+        var otherPartner = traineeRepo.getTraineeTrainingsByCriteria(
+                testTrainee.getUserName(), null, null, "unknown", null
+        );
+
+        // Then
+        assertEquals(1, matching.size());
+        assertTrue(otherType.isEmpty());
+        assertTrue(otherPartner.isEmpty());
+    }
+
     @Test
     @DisplayName("isUserNameExists - should return result when entity was found")
     void isUserNameExists_ShouldReturnTrue_WhenEntityWasFound() {
@@ -1,13 +1,23 @@
 package com.crm.repositories.impl;
 
 import com.crm.DbTestBase;
+import com.crm.enums.TrainingType;
+import com.crm.repositories.entities.Training;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.time.LocalDate;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class TrainerRepoImplTest extends DbTestBase {
+    @PersistenceContext
+    private EntityManager entityManager;
 
     @Test
     @DisplayName("Save a trainer and verify it is persisted")
@@ -86,6 +96,39 @@ public class TrainerRepoImplTest extends DbTestBase {
         assertEquals(testTraining.getTrainingName(), trainings.get(0).getTrainingName());
     }
 
+    @Test
+    @DisplayName("Get trainer trainings by criteria with one query and without loading entities")
+    void getTrainerTrainingsByCriteria_ShouldProjectRowsWithSingleQuery() {
+        // Given
+        trainerRepo.save(testTrainer);
+        traineeRepo.save(testTrainee);
+        trainingRepo.save(testTraining);
+        trainingRepo.save(Training.builder()
+                .trainee(testTrainee)
+                .trainer(testTrainer)
+                .trainingName("Second")
+                .trainingType(testTraining.getTrainingType())
+                .trainingDate(testTraining.getTrainingDate())
+                .trainingDuration(testTraining.getTrainingDuration())
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+        var statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        var statementsBefore = statistics.getPrepareStatementCount();
+
+        // When
+        var trainings = trainerRepo.getTrainerTrainingsByCriteria(
+                testTrainer.getUserName(), null, null, null, null
+        );
+
+        // Then
+        assertEquals(1, statistics.getPrepareStatementCount() - statementsBefore);
+        assertEquals(2, trainings.size());
+        assertTrue(trainings.stream().allMatch(view -> testTrainee.getId().equals(view.getTraineeId())));
+        assertEquals(0, entityManager.unwrap(Session.class).getStatistics().getEntityCount());
+    }
+
     @Test
     @DisplayName("Get unassigned trainers by trainee username and verify result")
     void getUnassignedTrainersByTraineeUsername_ShouldReturnCorrectTrainers() {
@@ -101,6 +144,32 @@ public class TrainerRepoImplTest extends DbTestBase {
         assertEquals(savedTrainer.getUserName(), trainers.get(0).getUserName());
     }
 
+    @Test
+    @DisplayName("Get trainer trainings by all criteria and verify that every filter applies")
+    void getTrainerTrainingsByCriteria_ShouldApplyEveryFilter() {
+        // Given
+        traineeRepo.save(testTrainee);
+        trainerRepo.save(testTrainer);
+        trainingRepo.save(testTraining);
+        var today = LocalDate.now();
+
+        // When
+        var matching = trainerRepo.getTrainerTrainingsByCriteria(
+                testTrainer.getUserName(), today.minusDays(1), today.plusDays(1), testTrainee.getFirstName(), TrainingType.FITNESS
+        );
+        var otherType = trainerRepo.getTrainerTrainingsByCriteria(
+                testTrainer.getUserName(), today.minusDays(1), null, testTrainee.getFirstName(), TrainingType.YOGA
+        );
+        var otherPartner = trainerRepo.getTrainerTrainingsByCriteria(
+                testTrainer.getUserName(), null, null, "unknown", null
+        );
+
+        // Then
+        assertEquals(1, matching.size());
+        assertTrue(otherType.isEmpty());
+        assertTrue(otherPartner.isEmpty());
+    }
+
     @Test
     @DisplayName("isUserNameExists - should return result when entity was found")
     void isUserNameExists_ShouldReturnTrue_WhenEntityWasFound() {
@@ -0,0 +1,85 @@
+package com.crm.repositories.impl;
+
+import com.crm.DbTestBase;
+import com.crm.enums.UserRole;
+import com.crm.repositories.UserRepo;
+import com.crm.repositories.entities.User;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UserRepoImplTest extends DbTestBase {
+    @Autowired
+    private UserRepo userRepo;
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void enableStatistics() {
+        statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @Test
+    @DisplayName("Find credentials of trainee and trainer with their roles")
+    void findCredentialsByUserName_ShouldReturnCredentialsWithRole() {
+        // Given
+        traineeRepo.save(testTrainee);
+        trainerRepo.save(testTrainer);
+        flushAndClear();
+
+        // When
+        var trainee = userRepo.findCredentialsByUserName(testTrainee.getUserName());
+        var trainer = userRepo.findCredentialsByUserName(testTrainer.getUserName());
+        var unknown = userRepo.findCredentialsByUserName("unknown");
+
+        // Then
+        assertTrue(trainee.isPresent());
+        assertEquals(UserRole.TRAINEE, trainee.get().getRole());
+        assertEquals(testTrainee.getPassword(), trainee.get().getPassword());
+        assertTrue(trainee.get().isActive());
+        assertTrue(trainer.isPresent());
+        assertEquals(UserRole.TRAINER, trainer.get().getRole());
+        assertTrue(unknown.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Credentials of a trainer are read with fewer queries than through trainee and trainer repos")
+    void findCredentialsByUserName_ShouldUseSingleQuery() {
+        // Given
+        trainerRepo.save(testTrainer);
+        flushAndClear();
+        var userName = testTrainer.getUserName();
+
+        // When
+        statistics.clear();
+        traineeRepo.findByUserName(userName)
+                .map(trainee -> (User) trainee)
+                .or(() -> trainerRepo.findByUserName(userName));
+        var entityLookupQueries = statistics.getPrepareStatementCount();
+        flushAndClear();
+
+        statistics.clear();
+        userRepo.findCredentialsByUserName(userName);
+        var projectionQueries = statistics.getPrepareStatementCount();
+
+        // Then
+        assertEquals(1, projectionQueries);
+        assertTrue(entityLookupQueries > projectionQueries);
+    }
+
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
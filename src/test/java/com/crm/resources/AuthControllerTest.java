@@ -1,7 +1,9 @@
 package com.crm.resources;
 
+import com.crm.exceptions.InvalidRefreshTokenException;
 import com.crm.init.DataInitializer;
 import com.crm.models.AuthRequest;
+import com.crm.models.RefreshRequest;
 import com.crm.models.Token;
 import com.crm.services.security.GymSecurityService;
 import com.crm.services.security.JwtService;
@@ -9,21 +11,31 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
 import java.util.Date;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -40,27 +52,53 @@ class AuthControllerTest {
     private DataInitializer dataInitializer;
     @MockitoBean
     private JwtService jwtService;
+    @Value("${spring.security.login-rate-limit.max-attempts}")
+    private int loginMaxAttempts;
 
 
     private static final String LOGIN_URL = "/api/v1/auth/login";
     private static final String LOGOUT_URL = "/api/v1/auth/logout";
+    private static final String REFRESH_URL = "/api/v1/auth/refresh";
+    private static final String LOGOUT_ALL_URL = "/api/v1/auth/logout-all";
 
     @Test
     @DisplayName("Should return 201 and token on successful login")
     void shouldReturnTokenOnSuccessfulLogin() throws Exception {
         //Given
         var request = new AuthRequest("user", "Password1");
-        var token = new Token("user", new Date(), new Date(), "jwt_token");
+        var token = new Token("user", new Date(), new Date(), "jwt_token", "refresh_token", new Date());
         when(securityService.login(any(AuthRequest.class))).thenReturn(token);
 
         //When - Then
-        mockMvc.perform(MockMvcRequestBuilders.post(LOGIN_URL)
+        var result = mockMvc.perform(MockMvcRequestBuilders.post(LOGIN_URL)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(request)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isCreated())
                 .andExpect(jsonPath("$.token").value("jwt_token"));
     }
 
+    @Test
+    @DisplayName("Should delay response to failed login without holding request thread")
+    void shouldDelayResponseOnFailedLogin() throws Exception {
+        //Given
+        var request = new AuthRequest("user", "Wrong1");
+        when(securityService.login(any(AuthRequest.class))).thenThrow(new BadCredentialsException("Invalid credentials"));
+
+        //When
+        var result = mockMvc.perform(MockMvcRequestBuilders.post(LOGIN_URL)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        //Then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @DisplayName("Should return 400 on invalid login request")
     void shouldReturnBadRequestOnInvalidLogin() throws Exception {
@@ -74,11 +112,56 @@ class AuthControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    @DisplayName("Should return 201 and new tokens on successful refresh")
+    void shouldReturnTokenOnSuccessfulRefresh() throws Exception {
+        //Given
+        var token = new Token("user", new Date(), new Date(), "new_jwt_token", "new_refresh_token", new Date());
+        when(securityService.refresh(any(RefreshRequest.class))).thenReturn(token);
+
+        //When - Then
+        mockMvc.perform(MockMvcRequestBuilders.post(REFRESH_URL)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RefreshRequest("refresh_token"))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.token").value("new_jwt_token"))
+                .andExpect(jsonPath("$.refreshToken").value("new_refresh_token"));
+    }
+
+    @Test
+    @DisplayName("Should return 401 when refresh token is not valid")
+    void shouldReturnUnauthorizedOnInvalidRefreshToken() throws Exception {
+        //Given
+        when(securityService.refresh(any(RefreshRequest.class)))
+                .thenThrow(new InvalidRefreshTokenException("Refresh token is not valid"));
+
+        //When - Then
+        mockMvc.perform(MockMvcRequestBuilders.post(REFRESH_URL)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RefreshRequest("reused_token"))))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @DisplayName("Should revoke refresh token passed on logout")
+    void shouldPassRefreshTokenOnLogout() throws Exception {
+        //Given
+        when(securityService.logout("Bearer jwt_token", "refresh_token")).thenReturn("Successfully logged out");
+
+        //When - Then
+        mockMvc.perform(MockMvcRequestBuilders.post(LOGOUT_URL)
+                        .header("Authorization", "Bearer jwt_token")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RefreshRequest("refresh_token"))))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.content().string("Successfully logged out"));
+    }
+
     @Test
     @DisplayName("Should return 200 and logout message on successful logout")
     void shouldReturnSuccessMessageOnLogout() throws Exception {
         //Given
-        when(securityService.logout(anyString())).thenReturn("Successfully logged out");
+        when(securityService.logout(anyString(), isNull())).thenReturn("Successfully logged out");
 
         //When - Then
         mockMvc.perform(MockMvcRequestBuilders.post(LOGOUT_URL)
@@ -86,4 +169,57 @@ class AuthControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(MockMvcResultMatchers.content().string("Successfully logged out"));
     }
+
+    @Test
+    @DisplayName("Should return 200 and logout message on logout from all devices")
+    void shouldReturnSuccessMessageOnLogoutAll() throws Exception {
+        //Given
+        when(securityService.logoutAll("Bearer jwt_token")).thenReturn("Successfully logged out on all devices");
+
+        //When - Then
+        mockMvc.perform(MockMvcRequestBuilders.post(LOGOUT_ALL_URL)
+                        .header("Authorization", "Bearer jwt_token"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.content().string("Successfully logged out on all devices"));
+    }
+
+    @Test
+    @DisplayName("Should return 429 without authentication when client exceeds login rate limit")
+    void shouldReturnTooManyRequestsWhenLoginRateLimitExceeded() throws Exception {
+        //Given
+        var request = objectMapper.writeValueAsString(new AuthRequest("user", "Password1"));
+        when(securityService.login(any(AuthRequest.class))).thenReturn(new Token("user", new Date(), new Date(), "jwt_token", "refresh_token", new Date()));
+        for (int i = 0; i < loginMaxAttempts; i++) {
+            var result = mockMvc.perform(MockMvcRequestBuilders.post(LOGIN_URL)
+                            .with(remoteAddress("10.0.0.1"))
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(request))
+                    .andReturn();
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isCreated());
+        }
+
+        //When - Then
+        mockMvc.perform(MockMvcRequestBuilders.post(LOGIN_URL)
+                        .with(remoteAddress("10.0.0.1"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(request))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+        var result = mockMvc.perform(MockMvcRequestBuilders.post(LOGIN_URL)
+                        .with(remoteAddress("10.0.0.2"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(request))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isCreated());
+        verify(securityService, times(loginMaxAttempts + 1)).login(any(AuthRequest.class));
+    }
+
+    private static RequestPostProcessor remoteAddress(String address) {
+        return request -> {
+            request.setRemoteAddr(address);
+            return request;
+        };
+    }
 }
\ No newline at end of file
@@ -8,6 +8,7 @@ import com.crm.dtos.trainee.TraineeTrainingUpdateDto;
 import com.crm.dtos.training.TrainingDto;
 import com.crm.dtos.training.TrainingView;
 import com.crm.enums.TrainingType;
+import com.crm.filters.RequestTimingFilter;
 import com.crm.init.DataInitializer;
 import com.crm.repositories.entities.Trainee;
 import com.crm.services.TraineeService;
@@ -34,6 +35,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -225,7 +227,9 @@ class TraineeControllerTest extends UnitTestBase {
                 .andDo(print())
                 .andExpect(jsonPath("$", hasSize(1)))
                 .andExpect(jsonPath("$[0].trainingName").value(shortView.getTrainingName()))
-                .andExpect(jsonPath("$[0].trainerId").value(shortView.getTrainerId()));
+                .andExpect(jsonPath("$[0].trainerId").value(shortView.getTrainerId()))
+                .andExpect(header().string(RequestTimingFilter.SERVER_TIMING, containsString("service;dur=")))
+                .andExpect(header().string(RequestTimingFilter.SERVER_TIMING, containsString("serialization;dur=")));
     }
 
     @ParameterizedTest
@@ -13,18 +13,20 @@ import com.crm.exceptions.UserNameChangedException;
 import com.crm.repositories.TraineeRepo;
 import com.crm.repositories.entities.Trainee;
 import com.crm.repositories.entities.Training;
+import com.crm.services.security.CustomUserDetailsService;
+import com.crm.services.security.TokenEpochService;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
-import org.mindrot.jbcrypt.BCrypt;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.springframework.core.convert.ConversionService;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.time.LocalDate;
@@ -42,6 +44,10 @@ class TraineeServiceImplTest extends UnitTestBase {
     private ConversionService conversionService;
     @Mock
     private PasswordEncoder encoder;
+    @Mock
+    private TokenEpochService tokenEpochService;
+    @Mock
+    private CustomUserDetailsService userDetailsService;
     @Captor
     private ArgumentCaptor<String> stringArgumentCaptor;
     @InjectMocks
@@ -173,7 +179,7 @@ class TraineeServiceImplTest extends UnitTestBase {
         when(encoder.matches(anyString(), anyString()))
                 .thenReturn(false)
                 .thenReturn(true);
-        testTrainee.setPassword(BCrypt.hashpw(testTrainee.getPassword(), BCrypt.gensalt()));
+        testTrainee.setPassword(new BCryptPasswordEncoder().encode(testTrainee.getPassword()));
 
         // When - Then
         assertThrows(
@@ -190,6 +196,8 @@ class TraineeServiceImplTest extends UnitTestBase {
         );
 
         verify(traineeRepo, times(1)).save(traineeArgumentCaptor.capture());
+        verify(tokenEpochService, times(1)).revokeAll(testTrainee.getUserName());
+        verify(userDetailsService, times(1)).evict(testTrainee.getUserName());
     }
 
     @Test
@@ -209,13 +217,15 @@ class TraineeServiceImplTest extends UnitTestBase {
 
         verify(traineeRepo, times(2)).findById(1L);
         verify(traineeRepo, times(2)).save(traineeArgumentCaptor.capture());
+        verify(tokenEpochService, times(1)).revokeAll(testTrainee.getUserName());
+        verify(userDetailsService, times(2)).evict(testTrainee.getUserName());
     }
 
     @Test
     @DisplayName("Is username and password matching - should return true for matching credentials")
     void isUsernameAndPasswordMatching_ShouldReturnTrueForMatchingCredentials() {
         // Given
-        testTrainee.setPassword(BCrypt.hashpw(testTrainee.getPassword(), BCrypt.gensalt()));
+        testTrainee.setPassword(new BCryptPasswordEncoder().encode(testTrainee.getPassword()));
         when(traineeRepo.findByUserName(anyString()))
                 .thenReturn(Optional.of(testTrainee))
                 .thenReturn(Optional.of(testTrainee))
@@ -281,9 +291,8 @@ class TraineeServiceImplTest extends UnitTestBase {
         // Given
         var fromDate = LocalDate.of(2024, 1, 1);
         var toDate = LocalDate.of(2024, 12, 31);
-        List<Training> expectedTrainings = expectedSize > 0 ? List.of(mock(Training.class)) : Collections.emptyList();
+        List<TrainingView> expectedTrainings = expectedSize > 0 ? List.of(new TrainingView()) : Collections.emptyList();
 
-        lenient().when(conversionService.convert(any(Training.class), eq(TrainingView.class))).thenReturn(new TrainingView());
         when(traineeRepo.getTraineeTrainingsByCriteria(traineeUsername, fromDate, toDate, trainerUsername, trainingType))
                 .thenReturn(expectedTrainings);
 
@@ -345,6 +354,52 @@ class TraineeServiceImplTest extends UnitTestBase {
         verify(traineeRepo, times(1)).findByUserName(stringArgumentCaptor.capture());
     }
 
+    @Test
+    @DisplayName("updateTraineeProfile - should only evict cached user details when password and status are kept")
+    void updateTraineeProfile_ShouldNotRevokeTokens_WhenSecurityDataIsKept() {
+        // Given
+        var updated = Trainee.builder()
+                .userName(testTrainee.getUserName())
+                .password(testTrainee.getPassword())
+                .isActive(testTrainee.isActive())
+                .address("newAddress")
+                .build();
+        when(traineeRepo.findByUserName(anyString())).thenReturn(Optional.ofNullable(testTrainee));
+        when(conversionService.convert(any(TraineeDto.class), eq(Trainee.class))).thenReturn(updated);
+        when(traineeRepo.save(any(Trainee.class))).thenReturn(updated);
+        when(conversionService.convert(any(Trainee.class), eq(TraineeView.class))).thenReturn(new TraineeView());
+
+        // When
+        traineeService.updateTraineeProfile(1L, testTraineeDto);
+
+        // Then
+        verify(tokenEpochService, never()).revokeAll(anyString());
+        verify(userDetailsService, times(1)).evict(testTrainee.getUserName());
+    }
+
+    @ParameterizedTest
+    @CsvSource({"newPassword, true", "testPassword, false"})
+    @DisplayName("updateTraineeProfile - should revoke all tokens when password or status is changed")
+    void updateTraineeProfile_ShouldRevokeTokens_WhenSecurityDataIsChanged(String password, boolean isActive) {
+        // Given
+        var updated = Trainee.builder()
+                .userName(testTrainee.getUserName())
+                .password(password)
+                .isActive(isActive)
+                .build();
+        when(traineeRepo.findByUserName(anyString())).thenReturn(Optional.ofNullable(testTrainee));
+        when(conversionService.convert(any(TraineeDto.class), eq(Trainee.class))).thenReturn(updated);
+        when(traineeRepo.save(any(Trainee.class))).thenReturn(updated);
+        when(conversionService.convert(any(Trainee.class), eq(TraineeView.class))).thenReturn(new TraineeView());
+
+        // When
+        traineeService.updateTraineeProfile(1L, testTraineeDto);
+
+        // Then
+        verify(tokenEpochService, times(1)).revokeAll(testTrainee.getUserName());
+        verify(userDetailsService, times(1)).evict(testTrainee.getUserName());
+    }
+
     @Test
     @DisplayName("updateTraineeProfile - should throw Exception")
     void updateTraineeProfile_shouldThrowException() {
@@ -10,18 +10,19 @@ import com.crm.exceptions.PasswordNotMatchException;
 import com.crm.exceptions.UserNameChangedException;
 import com.crm.repositories.TrainerRepo;
 import com.crm.repositories.entities.Trainer;
-import com.crm.repositories.entities.Training;
+import com.crm.services.security.CustomUserDetailsService;
+import com.crm.services.security.TokenEpochService;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
-import org.mindrot.jbcrypt.BCrypt;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.springframework.core.convert.ConversionService;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.time.LocalDate;
@@ -39,6 +40,10 @@ class TrainerServiceImplTest extends UnitTestBase {
     private ConversionService conversionService;
     @Mock
     private PasswordEncoder encoder;
+    @Mock
+    private TokenEpochService tokenEpochService;
+    @Mock
+    private CustomUserDetailsService userDetailsService;
 
     @Captor
     ArgumentCaptor<String> stringArgumentCaptor;
@@ -141,7 +146,7 @@ class TrainerServiceImplTest extends UnitTestBase {
         when(encoder.matches(anyString(), anyString()))
                 .thenReturn(false)
                 .thenReturn(true);
-        testTrainer.setPassword(BCrypt.hashpw(testTrainer.getPassword(), BCrypt.gensalt()));
+        testTrainer.setPassword(new BCryptPasswordEncoder().encode(testTrainer.getPassword()));
 
         // When - Then
         assertThrows(
@@ -158,6 +163,8 @@ class TrainerServiceImplTest extends UnitTestBase {
         );
 
         verify(trainerRepo, times(1)).save(trainerArgumentCaptor.capture());
+        verify(tokenEpochService, times(1)).revokeAll(testTrainer.getUserName());
+        verify(userDetailsService, times(1)).evict(testTrainer.getUserName());
     }
 
     @Test
@@ -177,13 +184,15 @@ class TrainerServiceImplTest extends UnitTestBase {
 
         verify(trainerRepo, times(2)).findById(1L);
         verify(trainerRepo, times(2)).save(trainerArgumentCaptor.capture());
+        verify(tokenEpochService, times(1)).revokeAll(testTrainer.getUserName());
+        verify(userDetailsService, times(2)).evict(testTrainer.getUserName());
     }
 
     @Test
     @DisplayName("Is username and password matching - should return true/false for matching credentials")
     void isUsernameAndPasswordMatching_ShouldReturnTrueForMatchingCredentials() {
         // Given
-        testTrainer.setPassword(BCrypt.hashpw(testTrainer.getPassword(), BCrypt.gensalt()));
+        testTrainer.setPassword(new BCryptPasswordEncoder().encode(testTrainer.getPassword()));
         when(trainerRepo.findByUserName(anyString()))
                 .thenReturn(Optional.of(testTrainer))
                 .thenReturn(Optional.of(testTrainer))
@@ -270,9 +279,8 @@ class TrainerServiceImplTest extends UnitTestBase {
         // Given
         var fromDate = LocalDate.of(2024, 1, 1);
         var toDate = LocalDate.of(2024, 12, 31);
-        List<Training> expectedTrainings = expectedSize > 0 ? List.of(mock(Training.class)) : Collections.emptyList();
+        List<TrainingView> expectedTrainings = expectedSize > 0 ? List.of(new TrainingView()) : Collections.emptyList();
 
-        lenient().when(conversionService.convert(any(Training.class), eq(TrainingView.class))).thenReturn(new TrainingView());
         when(trainerRepo.getTrainerTrainingsByCriteria(trainerUsername, fromDate, toDate, traineeUsername, trainingType))
                 .thenReturn(expectedTrainings);
 
@@ -335,6 +343,54 @@ class TrainerServiceImplTest extends UnitTestBase {
         verify(trainerRepo, times(1)).findByUserName(stringArgumentCaptor.capture());
     }
 
+    @Test
+    @DisplayName("updateTrainerProfile - should only evict cached user details when password and status are kept")
+    void updateTrainerProfile_ShouldNotRevokeTokens_WhenSecurityDataIsKept() {
+        // Given
+        var updated = Trainer.builder()
+                .userName(testTrainer.getUserName())
+                .password(testTrainer.getPassword())
+                .isActive(testTrainer.isActive())
+                .specialization(TrainingType.YOGA)
+                .build();
+        when(trainerRepo.findByUserName(anyString())).thenReturn(Optional.ofNullable(testTrainer));
+        when(conversionService.convert(any(TrainerDto.class), eq(Trainer.class))).thenReturn(updated);
+        when(trainerRepo.save(any(Trainer.class))).thenReturn(updated);
+        when(conversionService.convert(any(Trainer.class), eq(TrainerView.class))).thenReturn(new TrainerView());
+        var trainerDto = TrainerDto.builder().userName(testTrainer.getUserName()).build();
+
+        // When
+        trainerService.updateTrainerProfile(1L, trainerDto);
+
+        // Then
+        verify(tokenEpochService, never()).revokeAll(anyString());
+        verify(userDetailsService, times(1)).evict(testTrainer.getUserName());
+    }
+
+    @ParameterizedTest
+    @CsvSource({"newPassword, true", "Pasw3456, false"})
+    @DisplayName("updateTrainerProfile - should revoke all tokens when password or status is changed")
+    void updateTrainerProfile_ShouldRevokeTokens_WhenSecurityDataIsChanged(String password, boolean isActive) {
+        // Given
+        var updated = Trainer.builder()
+                .userName(testTrainer.getUserName())
+                .password(password)
+                .isActive(isActive)
+                .build();
+        when(trainerRepo.findByUserName(anyString())).thenReturn(Optional.ofNullable(testTrainer));
+        when(conversionService.convert(any(TrainerDto.class), eq(Trainer.class))).thenReturn(updated);
+        when(trainerRepo.save(any(Trainer.class))).thenReturn(updated);
+        when(conversionService.convert(any(Trainer.class), eq(TrainerView.class))).thenReturn(new TrainerView());
+        var trainerDto = TrainerDto.builder().userName(testTrainer.getUserName()).build();
+
+        // When
+        trainerService.updateTrainerProfile(1L, trainerDto);
+
+        // Then
+        verify(tokenEpochService, times(1)).revokeAll(testTrainer.getUserName());
+        verify(userDetailsService, times(1)).evict(testTrainer.getUserName());
+    }
+
     @Test
     @DisplayName("updateTraineeProfile - should throw Exception")
     void updateTraineeProfile_shouldThrowException() {
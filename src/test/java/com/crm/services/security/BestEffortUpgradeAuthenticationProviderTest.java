@@ -0,0 +1,63 @@
+package com.crm.services.security;
+
+import com.crm.exceptions.PasswordHashingRejectedException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BestEffortUpgradeAuthenticationProviderTest {
+    @Mock
+    private UserDetailsService userDetailsService;
+    @Mock
+    private UserDetailsPasswordService userDetailsPasswordService;
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    private BestEffortUpgradeAuthenticationProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        provider = new BestEffortUpgradeAuthenticationProvider();
+        provider.setUserDetailsService(userDetailsService);
+        provider.setPasswordEncoder(passwordEncoder);
+        provider.setUserDetailsPasswordService(userDetailsPasswordService);
+    }
+
+    @Test
+    @DisplayName("Should authenticate user with matching password when hash upgrade is rejected")
+    void authenticate_ShouldSucceed_WhenUpgradeIsRejected() {
+        //Given
+        var user = User.withUsername("testUser").password("legacyHash").roles("TRAINEE").build();
+        when(userDetailsService.loadUserByUsername("testUser")).thenReturn(user);
+        when(passwordEncoder.matches("Password1", "legacyHash")).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding("legacyHash")).thenReturn(true);
+        when(passwordEncoder.encode(any())).thenAnswer(invocation -> {
+            if ("Password1".equals(invocation.getArgument(0))) {
+                throw new PasswordHashingRejectedException("Password hashing capacity is exhausted");
+            }
+            return "userNotFoundHash";
+        });
+
+        //When
+        var authentication = provider.authenticate(new UsernamePasswordAuthenticationToken("testUser", "Password1"));
+
+        //Then
+        assertTrue(authentication.isAuthenticated());
+        assertSame(user, authentication.getPrincipal());
+        assertEquals("ROLE_TRAINEE", authentication.getAuthorities().iterator().next().getAuthority());
+        verify(userDetailsPasswordService, never()).updatePassword(any(), any());
+    }
+}
@@ -0,0 +1,138 @@
+package com.crm.services.security;
+
+import com.crm.UnitTestBase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class BruteForceServiceTest extends UnitTestBase {
+    private static final String SECRET_KEY = "70337336763979244226452948404D635166546A576E5A7134743777217A2543";
+
+    @Mock
+    private TokenRevocationStore tokenRevocationStore;
+    private JwtService jwtService;
+    private LocalLoginAttemptStore loginAttemptStore;
+    private BruteForceService bruteForceService;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", SECRET_KEY);
+        ReflectionTestUtils.setField(jwtService, "expirationTimeMinutes", 60L);
+        ReflectionTestUtils.setField(jwtService, "claimsCacheMaxSize", 100L);
+        jwtService.init();
+
+        loginAttemptStore = new LocalLoginAttemptStore();
+        ReflectionTestUtils.setField(loginAttemptStore, "lockedTime", 5L);
+        ReflectionTestUtils.setField(loginAttemptStore, "maxTrackedUsers", 100L);
+        loginAttemptStore.init();
+
+        bruteForceService = new BruteForceService(jwtService, tokenRevocationStore, loginAttemptStore);
+        ReflectionTestUtils.setField(bruteForceService, "maxAttempts", 3);
+    }
+
+    @Test
+    @DisplayName("Should block user after max failed attempts and unblock after successful login")
+    void loginFailed_ShouldBlockUserAfterMaxAttempts() {
+        //When
+        bruteForceService.loginFailed("user");
+        bruteForceService.loginFailed("user");
+        var blockedBeforeMaxAttempts = bruteForceService.isUserBlocked("user");
+        bruteForceService.loginFailed("user");
+        var blockedAfterMaxAttempts = bruteForceService.isUserBlocked("user");
+        bruteForceService.loginSucceeded("user");
+
+        //Then
+        assertFalse(blockedBeforeMaxAttempts);
+        assertTrue(blockedAfterMaxAttempts);
+        assertFalse(bruteForceService.isUserBlocked("user"));
+        assertEquals(0, bruteForceService.failedAttempts("user"));
+    }
+
+    @Test
+    @DisplayName("Should count every concurrent failed attempt exactly once")
+    void loginFailed_ShouldCountConcurrentAttemptsExactly() throws Exception {
+        //Given
+        var threads = 16;
+        var attemptsPerThread = 10_000;
+        var usernames = List.of("firstUser", "secondUser", "thirdUser");
+        ReflectionTestUtils.setField(bruteForceService, "maxAttempts", Integer.MAX_VALUE);
+        var executor = Executors.newFixedThreadPool(threads);
+        var start = new CountDownLatch(1);
+
+        //When
+        try {
+            var futures = IntStream.range(0, threads)
+                    .mapToObj(thread -> executor.submit(() -> {
+                        start.await();
+                        for (int i = 0; i < attemptsPerThread; i++) {
+                            bruteForceService.loginFailed(usernames.get(i % usernames.size()));
+                        }
+                        return null;
+                    }))
+                    .toList();
+            start.countDown();
+            for (var future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        //Then
+        var total = usernames.stream()
+                .mapToInt(bruteForceService::failedAttempts)
+                .sum();
+        assertEquals(threads * attemptsPerThread, total);
+        assertEquals(threads * 3334, bruteForceService.failedAttempts("firstUser"));
+        assertEquals(threads * 3333, bruteForceService.failedAttempts("thirdUser"));
+    }
+
+    @Test
+    @DisplayName("Should keep number of tracked users under the cap")
+    void loginFailed_ShouldNotTrackMoreUsersThanCap() {
+        //When
+        IntStream.range(0, 1_000).forEach(i -> bruteForceService.loginFailed("user" + i));
+
+        //Then
+        assertTrue(loginAttemptStore.trackedUsers() <= 100);
+    }
+
+    @Test
+    @DisplayName("Should revoke logged out token until its expiration")
+    void logout_ShouldRevokeTokenUntilExpiration() {
+        //Given
+        var token = jwtService.generateToken(User.withUsername("user").password("password").build(), 0);
+
+        //When
+        bruteForceService.logout(token.getToken());
+
+        //Then
+        var expiresAtSeconds = token.getExpiredAt().getTime() / 1000;
+        verify(tokenRevocationStore, times(1)).revoke(token.getToken(), expiresAtSeconds * 1000);
+    }
+
+    @Test
+    @DisplayName("Should ignore logout with invalid token")
+    void logout_ShouldIgnoreInvalidToken() {
+        //When
+        bruteForceService.logout("invalid.token.value");
+
+        //Then
+        verify(tokenRevocationStore, never()).revoke(anyString(), anyLong());
+    }
+}
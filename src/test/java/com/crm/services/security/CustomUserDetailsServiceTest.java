@@ -0,0 +1,143 @@
+package com.crm.services.security;
+
+import com.crm.UnitTestBase;
+import com.crm.enums.UserRole;
+import com.crm.models.UserCredentials;
+import com.crm.repositories.UserRepo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CustomUserDetailsServiceTest extends UnitTestBase {
+    @Mock
+    private UserRepo userRepo;
+    private SimpleMeterRegistry meterRegistry;
+    private CustomUserDetailsService userDetailsService;
+    private UserCredentials traineeCredentials;
+    private UserCredentials trainerCredentials;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        userDetailsService = new CustomUserDetailsService(userRepo, meterRegistry);
+        ReflectionTestUtils.setField(userDetailsService, "cacheMaxSize", 100L);
+        ReflectionTestUtils.setField(userDetailsService, "cacheTtlSeconds", 600L);
+        userDetailsService.init();
+
+        traineeCredentials = new UserCredentials(testTrainee.getUserName(), testTrainee.getPassword(), true, UserRole.TRAINEE);
+        trainerCredentials = new UserCredentials(testTrainer.getUserName(), testTrainer.getPassword(), true, UserRole.TRAINER);
+    }
+
+    @Test
+    @DisplayName("Should load user from DB once and then serve it from cache")
+    void loadUserByUsername_ShouldUseCache() {
+        //Given
+        when(userRepo.findCredentialsByUserName(testTrainee.getUserName())).thenReturn(Optional.of(traineeCredentials));
+
+        //When
+        var first = userDetailsService.loadUserByUsername(testTrainee.getUserName());
+        var second = userDetailsService.loadUserByUsername(testTrainee.getUserName());
+
+        //Then
+        assertNotSame(first, second);
+        assertEquals(testTrainee.getPassword(), second.getPassword());
+        assertEquals("ROLE_TRAINEE", second.getAuthorities().iterator().next().getAuthority());
+        verify(userRepo, times(1)).findCredentialsByUserName(testTrainee.getUserName());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    @DisplayName("Should load user from DB again after eviction")
+    void evict_ShouldForceReload() {
+        //Given
+        when(userRepo.findCredentialsByUserName(testTrainer.getUserName())).thenReturn(Optional.of(trainerCredentials));
+
+        //When
+        userDetailsService.loadUserByUsername(testTrainer.getUserName());
+        userDetailsService.evict(testTrainer.getUserName());
+        var reloaded = userDetailsService.loadUserByUsername(testTrainer.getUserName());
+
+        //Then
+        assertEquals("ROLE_TRAINER", reloaded.getAuthorities().iterator().next().getAuthority());
+        verify(userRepo, times(2)).findCredentialsByUserName(testTrainer.getUserName());
+    }
+
+    @Test
+    @DisplayName("Should drop credentials cached during the transaction once it commits")
+    void evict_ShouldDropCredentialsAgainAfterCommit() {
+        //Given
+        when(userRepo.findCredentialsByUserName(testTrainer.getUserName())).thenReturn(Optional.of(trainerCredentials));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            userDetailsService.evict(testTrainer.getUserName());
+            userDetailsService.loadUserByUsername(testTrainer.getUserName());
+
+            //When
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        userDetailsService.loadUserByUsername(testTrainer.getUserName());
+
+        //Then
+        verify(userRepo, times(2)).findCredentialsByUserName(testTrainer.getUserName());
+    }
+
+    @Test
+    @DisplayName("Should store upgraded password and keep serving user from cache")
+    void updatePassword_ShouldUpdateDbAndCache() {
+        //Given
+        when(userRepo.findCredentialsByUserName(testTrainee.getUserName())).thenReturn(Optional.of(traineeCredentials));
+        var user = userDetailsService.loadUserByUsername(testTrainee.getUserName());
+
+        //When
+        var upgraded = userDetailsService.updatePassword(user, "{bcrypt}upgradedHash");
+        var reloaded = userDetailsService.loadUserByUsername(testTrainee.getUserName());
+
+        //Then
+        assertEquals("{bcrypt}upgradedHash", upgraded.getPassword());
+        assertEquals("{bcrypt}upgradedHash", reloaded.getPassword());
+        verify(userRepo, times(1)).updatePassword(testTrainee.getUserName(), "{bcrypt}upgradedHash");
+        verify(userRepo, times(1)).findCredentialsByUserName(testTrainee.getUserName());
+    }
+
+    @Test
+    @DisplayName("Should keep user and cached hash unchanged when upgraded hash can not be stored")
+    void updatePassword_ShouldReturnUserUnchanged_WhenDbFails() {
+        //Given
+        when(userRepo.findCredentialsByUserName(testTrainee.getUserName())).thenReturn(Optional.of(traineeCredentials));
+        doThrow(new DataAccessResourceFailureException("Connection refused"))
+                .when(userRepo).updatePassword(testTrainee.getUserName(), "{bcrypt}upgradedHash");
+        var user = userDetailsService.loadUserByUsername(testTrainee.getUserName());
+
+        //When
+        var result = userDetailsService.updatePassword(user, "{bcrypt}upgradedHash");
+
+        //Then
+        assertSame(user, result);
+        assertEquals(testTrainee.getPassword(), userDetailsService.loadUserByUsername(testTrainee.getUserName()).getPassword());
+    }
+
+    @Test
+    @DisplayName("Should throw exception when user does not exist")
+    void loadUserByUsername_ShouldThrowException_WhenUserNotFound() {
+        //Given
+        when(userRepo.findCredentialsByUserName(anyString())).thenReturn(Optional.empty());
+
+        //When - Then
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("unknown"));
+    }
+}
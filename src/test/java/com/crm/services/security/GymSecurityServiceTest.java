@@ -1,20 +1,29 @@
 package com.crm.services.security;
 
 import com.crm.UnitTestBase;
+import com.crm.exceptions.InvalidRefreshTokenException;
+import com.crm.exceptions.PasswordHashingRejectedException;
 import com.crm.exceptions.UserBlockedException;
 import com.crm.models.AuthRequest;
+import com.crm.models.IssuedRefreshToken;
+import com.crm.models.RefreshRequest;
 import com.crm.models.Token;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.jsonwebtoken.security.SignatureException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Date;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -28,6 +37,14 @@ class GymSecurityServiceTest extends UnitTestBase {
     private CustomUserDetailsService userDetailsService;
     @Mock
     private BruteForceService bruteForceService;
+    @Mock
+    private RefreshTokenService refreshTokenService;
+    @Mock
+    private TokenEpochService tokenEpochService;
+    @Mock
+    private TokenRevocationStore tokenRevocationStore;
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
     @InjectMocks
     private GymSecurityService gymSecurityService;
     private AuthRequest authRequest;
@@ -37,6 +54,7 @@ class GymSecurityServiceTest extends UnitTestBase {
     void setUp() {
         authRequest = new AuthRequest("testUser", "Password1");
         userDetails = mock(UserDetails.class);
+        gymSecurityService.init();
     }
 
     @Test
@@ -44,8 +62,10 @@ class GymSecurityServiceTest extends UnitTestBase {
     void login_Successful() {
         //Given
         when(bruteForceService.isUserBlocked(authRequest.getUsername())).thenReturn(false);
-        when(userDetailsService.loadUserByUsername(authRequest.getUsername())).thenReturn(userDetails);
-        when(jwtService.generateToken(userDetails)).thenReturn(new Token("testUser", new Date(), new Date(), "jwt-token"));
+        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
+                .thenReturn(new UsernamePasswordAuthenticationToken(userDetails, null, List.of()));
+        when(jwtService.generateToken(userDetails, 0)).thenReturn(new Token("testUser", new Date(), new Date(), "jwt-token", null, null));
+        when(refreshTokenService.issue(any())).thenReturn(new IssuedRefreshToken("testUser", new Date(), "refresh-token"));
 
         //When
         var token = gymSecurityService.login(authRequest);
@@ -53,7 +73,12 @@ class GymSecurityServiceTest extends UnitTestBase {
         //Then
         assertNotNull(token);
         assertEquals("testUser", token.getOwnerUserName());
+        assertEquals("refresh-token", token.getRefreshToken());
         verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
+        verifyNoInteractions(userDetailsService);
+        for (var stage : new String[]{"brute_force_check", "verification", "token_issue"}) {
+            assertEquals(1, meterRegistry.get("security.login.stage").tag("stage", stage).timer().count());
+        }
     }
 
     @Test
@@ -85,6 +110,60 @@ class GymSecurityServiceTest extends UnitTestBase {
         );
     }
 
+    @Test
+    @DisplayName("Should not count rejected password verification as failed attempt")
+    void login_PasswordHashingRejected_ShouldRethrowException() {
+        //Given
+        when(bruteForceService.isUserBlocked(authRequest.getUsername())).thenReturn(false);
+        doThrow(new PasswordHashingRejectedException("Overloaded"))
+                .when(authenticationManager)
+                .authenticate(any(UsernamePasswordAuthenticationToken.class));
+
+        //When - Then
+        assertThrows(
+                PasswordHashingRejectedException.class,
+                () -> gymSecurityService.login(authRequest)
+        );
+        verify(bruteForceService, never()).loginFailed(anyString());
+    }
+
+    @Test
+    @DisplayName("Should issue new tokens for refresh token without authentication")
+    void refresh_Successful() {
+        //Given
+        var rotated = new IssuedRefreshToken("testUser", new Date(), "next-refresh-token");
+        when(refreshTokenService.rotate("refresh-token")).thenReturn(rotated);
+        when(userDetailsService.loadUserByUsername("testUser")).thenReturn(userDetails);
+        when(userDetails.isEnabled()).thenReturn(true);
+        when(jwtService.generateToken(userDetails, 0)).thenReturn(new Token("testUser", new Date(), new Date(), "jwt-token", null, null));
+
+        //When
+        var token = gymSecurityService.refresh(new RefreshRequest("refresh-token"));
+
+        //Then
+        assertEquals("jwt-token", token.getToken());
+        assertEquals("next-refresh-token", token.getRefreshToken());
+        verifyNoInteractions(authenticationManager);
+    }
+
+    @Test
+    @DisplayName("Should reject refresh and revoke refresh tokens when user is not active")
+    void refresh_InactiveUser_ShouldThrowException() {
+        //Given
+        var rotated = new IssuedRefreshToken("testUser", new Date(), "next-refresh-token");
+        when(refreshTokenService.rotate("refresh-token")).thenReturn(rotated);
+        when(userDetailsService.loadUserByUsername("testUser")).thenReturn(userDetails);
+        when(userDetails.isEnabled()).thenReturn(false);
+
+        //When - Then
+        assertThrows(
+                InvalidRefreshTokenException.class,
+                () -> gymSecurityService.refresh(new RefreshRequest("refresh-token"))
+        );
+        verify(refreshTokenService).revoke("next-refresh-token");
+        verifyNoInteractions(jwtService);
+    }
+
     @Test
     @DisplayName("Should do successful logout when token is valid")
     void logout_ValidToken_ShouldReturnSuccessMessage() {
@@ -93,12 +172,30 @@ class GymSecurityServiceTest extends UnitTestBase {
         doNothing().when(bruteForceService).logout("validToken");
 
         //When
-        var result = gymSecurityService.logout(authHeader);
+        var result = gymSecurityService.logout(authHeader, null);
 
         //Then
         assertEquals("Successfully logged out ", result);
     }
 
+    @Test
+    @DisplayName("Should revoke refresh token on logout only when it belongs to the owner of the token")
+    void logout_WithRefreshToken_ShouldRevokeItOnBehalfOfTokenOwner() {
+        //Given
+        var claims = Jwts.claims().setSubject("testUser");
+        when(jwtService.extractAllClaims("validToken")).thenReturn(claims);
+        when(jwtService.extractAllClaims("tamperedToken")).thenThrow(new SignatureException("Invalid signature"));
+
+        //When
+        gymSecurityService.logout("Bearer validToken", "refresh-token");
+        gymSecurityService.logout("Bearer tamperedToken", "stolen-refresh-token");
+
+        //Then
+        verify(refreshTokenService).revoke("refresh-token", "testUser");
+        verify(refreshTokenService, never()).revoke(eq("stolen-refresh-token"), any());
+        verify(bruteForceService).logout("validToken");
+    }
+
     @Test
     @DisplayName("Should throw exception when invalid token")
     void logout_InvalidToken_ShouldThrowException() {
@@ -106,6 +203,42 @@ class GymSecurityServiceTest extends UnitTestBase {
         var authHeader = "InvalidToken";
 
         //When - Then
-        assertThrows(BadCredentialsException.class, () -> gymSecurityService.logout(authHeader));
+        assertThrows(BadCredentialsException.class, () -> gymSecurityService.logout(authHeader, null));
+    }
+
+    @Test
+    @DisplayName("Should revoke all tokens of the user on logout from all devices")
+    void logoutAll_ValidToken_ShouldRevokeAllTokens() {
+        //Given
+        var claims = Jwts.claims().setSubject("testUser");
+        when(jwtService.extractAllClaims("validToken")).thenReturn(claims);
+        when(jwtService.extractEpoch(claims)).thenReturn(2L);
+        when(tokenEpochService.isRevoked("testUser", 2L)).thenReturn(false);
+
+        //When
+        var result = gymSecurityService.logoutAll("Bearer validToken");
+
+        //Then
+        assertEquals("Successfully logged out on all devices", result);
+        verify(tokenEpochService).revokeAll("testUser");
+    }
+
+    @Test
+    @DisplayName("Should not revoke tokens on logout from all devices with invalid or revoked token")
+    void logoutAll_InvalidToken_ShouldThrowException() {
+        //Given
+        var claims = Jwts.claims().setSubject("testUser");
+        when(jwtService.extractAllClaims("revokedToken")).thenReturn(claims);
+        when(tokenEpochService.isRevoked("testUser", 0L)).thenReturn(true);
+        when(jwtService.extractAllClaims("tamperedToken")).thenThrow(new SignatureException("Invalid signature"));
+        when(tokenRevocationStore.isRevoked(anyString())).thenReturn(false);
+        when(tokenRevocationStore.isRevoked("blacklistedToken")).thenReturn(true);
+
+        //When - Then
+        assertThrows(BadCredentialsException.class, () -> gymSecurityService.logoutAll("InvalidToken"));
+        assertThrows(BadCredentialsException.class, () -> gymSecurityService.logoutAll("Bearer revokedToken"));
+        assertThrows(BadCredentialsException.class, () -> gymSecurityService.logoutAll("Bearer tamperedToken"));
+        assertThrows(BadCredentialsException.class, () -> gymSecurityService.logoutAll("Bearer blacklistedToken"));
+        verify(tokenEpochService, never()).revokeAll(any());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,179 @@
+package com.crm.services.security;
+
+import com.crm.CrmApplication;
+import com.crm.repositories.LoginAttemptRepo;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs two application contexts, standing for two nodes of the cluster, against one shared in-memory DB.
+ */
+class JpaLoginAttemptStoreTest {
+    private static ConfigurableApplicationContext firstNode;
+    private static ConfigurableApplicationContext secondNode;
+
+    private JpaLoginAttemptStore firstStore;
+    private JpaLoginAttemptStore secondStore;
+    private BruteForceService firstBruteForceService;
+    private BruteForceService secondBruteForceService;
+
+    @BeforeAll
+    static void startNodes() {
+        firstNode = startNode();
+        secondNode = startNode();
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        secondNode.close();
+        firstNode.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        firstStore = firstNode.getBean(JpaLoginAttemptStore.class);
+        secondStore = secondNode.getBean(JpaLoginAttemptStore.class);
+        firstBruteForceService = firstNode.getBean(BruteForceService.class);
+        secondBruteForceService = secondNode.getBean(BruteForceService.class);
+    }
+
+    @Test
+    @DisplayName("Failures below the limit should be written on flush and then counted by other node")
+    void recordFailure_ShouldCoalesceWritesUntilFlush() {
+        //Given
+        var username = randomUsername();
+
+        //When
+        firstStore.recordFailure(username);
+        firstStore.recordFailure(username);
+        var storedBeforeFlush = firstNode.getBean(LoginAttemptRepo.class).findById(username);
+        var seenByOtherNodeBeforeFlush = secondStore.failures(username);
+        firstStore.flushPendingFailures();
+
+        //Then
+        assertTrue(storedBeforeFlush.isEmpty());
+        assertEquals(0, seenByOtherNodeBeforeFlush);
+        assertEquals(2, firstStore.failures(username));
+        assertEquals(2, secondStore.failures(username));
+    }
+
+    @Test
+    @DisplayName("Failures on both nodes should add up to one lock seen by both nodes right away")
+    void loginFailed_ShouldBlockUserInWholeCluster() {
+        //Given
+        var username = randomUsername();
+        firstBruteForceService.loginFailed(username);
+        firstBruteForceService.loginFailed(username);
+        firstStore.flushPendingFailures();
+
+        //When
+        var blockedBeforeLimit = secondBruteForceService.isUserBlocked(username);
+        secondBruteForceService.loginFailed(username);
+
+        //Then
+        assertFalse(blockedBeforeLimit);
+        assertTrue(secondBruteForceService.isUserBlocked(username));
+        assertTrue(firstBruteForceService.isUserBlocked(username));
+    }
+
+    @Test
+    @DisplayName("Failures flushed by both nodes for a new user should all be counted")
+    void flushPendingFailures_ShouldAddUpFailuresOfBothNodes() {
+        //Given
+        var username = randomUsername();
+        firstStore.recordFailure(username);
+        secondStore.recordFailure(username);
+
+        //When
+        firstStore.flushPendingFailures();
+        secondStore.flushPendingFailures();
+
+        //Then
+        assertEquals(2, firstNode.getBean(LoginAttemptRepo.class).findById(username).orElseThrow().getFailures());
+    }
+
+    @Test
+    @DisplayName("Successful login on one node should unblock user on both nodes")
+    void loginSucceeded_ShouldResetFailuresInWholeCluster() {
+        //Given
+        var username = randomUsername();
+        firstBruteForceService.loginFailed(username);
+        firstBruteForceService.loginFailed(username);
+        firstBruteForceService.loginFailed(username);
+
+        //When
+        secondBruteForceService.loginSucceeded(username);
+
+        //Then
+        assertFalse(firstBruteForceService.isUserBlocked(username));
+        assertFalse(secondBruteForceService.isUserBlocked(username));
+    }
+
+    @Test
+    @DisplayName("Sweep should survive unavailable DB")
+    void sweepExpiredAttempts_ShouldNotFail_WhenDbIsUnavailable() {
+        //Given
+        var loginAttemptRepo = mock(LoginAttemptRepo.class);
+        when(loginAttemptRepo.deleteExpired(any())).thenThrow(new DataAccessResourceFailureException("Connection refused"));
+        var store = new JpaLoginAttemptStore(loginAttemptRepo);
+
+        //When - Then
+        assertDoesNotThrow(store::sweepExpiredAttempts);
+        verify(loginAttemptRepo).deleteExpired(any());
+    }
+
+    @Test
+    @DisplayName("Failures of users beyond the pending limit should be written right away")
+    void recordFailure_ShouldWriteRightAway_WhenPendingFailuresAreFull() {
+        //Given
+        var loginAttemptRepo = mock(LoginAttemptRepo.class);
+        var store = new JpaLoginAttemptStore(loginAttemptRepo);
+        ReflectionTestUtils.setField(store, "maxAttempts", 3);
+        ReflectionTestUtils.setField(store, "lockedTime", 5L);
+        ReflectionTestUtils.setField(store, "maxTrackedUsers", 100L);
+        ReflectionTestUtils.setField(store, "maxPendingUsers", 1);
+        store.init();
+
+        //When
+        store.recordFailure("bufferedUser");
+        store.recordFailure("overflowUser");
+
+        //Then
+        verify(loginAttemptRepo).insert(eq("overflowUser"), eq(1), any());
+        verify(loginAttemptRepo, never()).insert(eq("bufferedUser"), anyInt(), any());
+        assertEquals(1, store.failures("bufferedUser"));
+    }
+
+    private static ConfigurableApplicationContext startNode() {
+        return new SpringApplicationBuilder(CrmApplication.class)
+                .profiles("test")
+                .run(
+                        "--server.port=0",
+                        "--spring.docker.compose.enabled=false",
+                        "--spring.datasource.url=jdbc:h2:mem:login-attempts;DB_CLOSE_DELAY=-1",
+                        "--spring.security.brute-force.store=jpa",
+                        "--spring.security.brute-force.attempts=3",
+                        "--spring.security.brute-force.snapshot-ttl-ms=0",
+                        "--spring.security.brute-force.flush-interval-ms=3600000"
+                );
+    }
+
+    private static String randomUsername() {
+        return UUID.randomUUID().toString();
+    }
+}
@@ -0,0 +1,189 @@
+package com.crm.services.security;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Base64;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtServiceTest {
+    private static final String SECRET_KEY = "70337336763979244226452948404D635166546A576E5A7134743777217A2543";
+
+    private JwtService jwtService;
+    private UserDetails userDetails;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = createJwtService(60);
+        userDetails = User.withUsername("testUser").password("password").build();
+    }
+
+    @Test
+    @DisplayName("Should verify generated token and extract its owner")
+    void generateToken_ShouldBeValid() {
+        //Given
+        var token = jwtService.generateToken(userDetails, 0);
+
+        //When
+        var claims = jwtService.extractAllClaims(token.getToken());
+
+        //Then
+        assertEquals("testUser", claims.getSubject());
+        assertEquals(token.getExpiredAt().getTime() / 1000, claims.getExpiration().getTime() / 1000);
+    }
+
+    @Test
+    @DisplayName("Should parse token only once and serve next lookups from cache")
+    void extractAllClaims_ShouldReturnCachedClaims() {
+        //Given
+        var token = jwtService.generateToken(userDetails, 0).getToken();
+
+        //When
+        var first = jwtService.extractAllClaims(token);
+        var second = jwtService.extractAllClaims(token);
+
+        //Then
+        assertSame(first, second);
+    }
+
+    @Test
+    @DisplayName("Should restore principal from signed claims")
+    void extractUserDetails_ShouldRestorePrincipalFromClaims() {
+        //Given
+        var trainer = User.withUsername("trainer").password("password").authorities("ROLE_TRAINER").disabled(true).build();
+        var token = jwtService.generateToken(trainer, 0).getToken();
+
+        //When
+        var principal = jwtService.extractUserDetails(jwtService.extractAllClaims(token));
+
+        //Then
+        assertTrue(principal.isPresent());
+        assertEquals("trainer", principal.get().getUsername());
+        assertFalse(principal.get().isEnabled());
+        assertEquals("ROLE_TRAINER", principal.get().getAuthorities().iterator().next().getAuthority());
+    }
+
+    @Test
+    @DisplayName("Should reject token with tampered signature")
+    void extractAllClaims_ShouldThrowException_WhenSignatureIsInvalid() {
+        //Given
+        var token = jwtService.generateToken(userDetails, 0).getToken();
+        var signatureStart = token.lastIndexOf('.') + 1;
+        var replacement = token.charAt(signatureStart) == 'A' ? 'B' : 'A';
+        var tampered = token.substring(0, signatureStart) + replacement + token.substring(signatureStart + 1);
+
+        //When - Then
+        assertThrows(SignatureException.class, () -> jwtService.extractAllClaims(tampered));
+    }
+
+    @Test
+    @DisplayName("Should reject expired token")
+    void extractAllClaims_ShouldThrowException_WhenTokenExpired() {
+        //Given
+        var expiredTokenService = createJwtService(-1);
+        var token = expiredTokenService.generateToken(userDetails, 0).getToken();
+
+        //When - Then
+        assertThrows(ExpiredJwtException.class, () -> jwtService.extractAllClaims(token));
+        assertThrows(ExpiredJwtException.class, () -> jwtService.extractAllClaims(token));
+    }
+
+    @Test
+    @DisplayName("Should issue tokens readable by standard JWT parser")
+    void generateToken_ShouldBeReadableByJwtParser() {
+        //Given
+        var token = jwtService.generateToken(userDetails, 0);
+
+        //When
+        var claims = Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(Base64.getDecoder().decode(SECRET_KEY)))
+                .build()
+                .parseClaimsJws(token.getToken())
+                .getBody();
+
+        //Then
+        assertEquals("testUser", claims.getSubject());
+        assertEquals(token.getExpiredAt().getTime() / 1000, claims.getExpiration().getTime() / 1000);
+        assertEquals(Boolean.TRUE, claims.get(JwtService.ACTIVE_CLAIM, Boolean.class));
+    }
+
+    @Test
+    @DisplayName("Should embed token epoch of the owner")
+    void extractEpoch_ShouldReturnEpochOfIssue() {
+        //Given
+        var token = jwtService.generateToken(userDetails, 7).getToken();
+        var withoutEpoch = Jwts.builder()
+                .setSubject("testUser")
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(Base64.getDecoder().decode(SECRET_KEY)), SignatureAlgorithm.HS256)
+                .compact();
+
+        //When - Then
+        assertEquals(7, jwtService.extractEpoch(jwtService.extractAllClaims(token)));
+        assertEquals(0, jwtService.extractEpoch(jwtService.extractAllClaims(withoutEpoch)));
+    }
+
+    @Test
+    @DisplayName("Should verify tokens issued by standard JWT builder")
+    void extractAllClaims_ShouldAcceptTokenIssuedByJwtBuilder() {
+        //Given
+        var token = Jwts.builder()
+                .setHeaderParam("typ", "JWT")
+                .setSubject("testUser")
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(Base64.getDecoder().decode(SECRET_KEY)), SignatureAlgorithm.HS256)
+                .compact();
+
+        //When - Then
+        assertEquals("testUser", jwtService.extractAllClaims(token).getSubject());
+    }
+
+    @Test
+    @DisplayName("Should reject malformed token")
+    void extractAllClaims_ShouldThrowException_WhenTokenIsMalformed() {
+        //Given
+        var token = jwtService.generateToken(userDetails, 0).getToken();
+        var withoutSignature = token.substring(0, token.lastIndexOf('.'));
+
+        //When - Then
+        assertThrows(MalformedJwtException.class, () -> jwtService.extractAllClaims(withoutSignature));
+        assertThrows(MalformedJwtException.class, () -> jwtService.extractAllClaims(token + ".extra"));
+    }
+
+    @Test
+    @DisplayName("Should reject re-encoded signature of a valid token, even after the token was cached")
+    void extractAllClaims_ShouldThrowException_WhenSignatureIsNotCanonical() {
+        //Given
+        var token = jwtService.generateToken(userDetails, 0).getToken();
+        var alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        var last = alphabet.indexOf(token.charAt(token.length() - 1));
+        var withTrailingBits = token.substring(0, token.length() - 1) + alphabet.charAt(last ^ 1);
+        jwtService.extractAllClaims(token);
+
+        //When - Then
+        assertThrows(MalformedJwtException.class, () -> jwtService.extractAllClaims(withTrailingBits));
+        assertThrows(MalformedJwtException.class, () -> jwtService.extractAllClaims(token + "="));
+        assertThrows(MalformedJwtException.class, () -> jwtService.parseClaims(withTrailingBits));
+    }
+
+    private static JwtService createJwtService(long expirationMinutes) {
+        var service = new JwtService();
+        ReflectionTestUtils.setField(service, "secretKey", SECRET_KEY);
+        ReflectionTestUtils.setField(service, "expirationTimeMinutes", expirationMinutes);
+        ReflectionTestUtils.setField(service, "claimsCacheMaxSize", 100L);
+        service.init();
+        return service;
+    }
+}
@@ -0,0 +1,65 @@
+package com.crm.services.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginRateLimiterTest {
+    private static final long WINDOW_MILLIS = 60_000;
+    private static final long WINDOW_START = 1_000 * WINDOW_MILLIS;
+
+    private SimpleMeterRegistry meterRegistry;
+    private LoginRateLimiter loginRateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        loginRateLimiter = new LoginRateLimiter(meterRegistry);
+        ReflectionTestUtils.setField(loginRateLimiter, "maxAttempts", 3);
+        ReflectionTestUtils.setField(loginRateLimiter, "windowSeconds", 60L);
+        ReflectionTestUtils.setField(loginRateLimiter, "maxTrackedClients", 100L);
+        loginRateLimiter.init();
+    }
+
+    @Test
+    @DisplayName("Should reject attempts above the limit only for the same client")
+    void tryAcquire_ShouldRejectAttemptsAboveLimit() {
+        //When
+        for (int i = 0; i < 3; i++) {
+            assertTrue(loginRateLimiter.tryAcquire("10.0.0.1", WINDOW_START + i));
+        }
+        var rejected = !loginRateLimiter.tryAcquire("10.0.0.1", WINDOW_START + 10);
+        var otherClientAllowed = loginRateLimiter.tryAcquire("10.0.0.2", WINDOW_START + 10);
+
+        //Then
+        assertTrue(rejected);
+        assertTrue(otherClientAllowed);
+        assertEquals(1.0, meterRegistry.get("security.login.rate_limited").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should count attempts of the previous window by its overlap with the sliding window")
+    void tryAcquire_ShouldSlideWindow() {
+        //Given
+        for (int i = 0; i < 3; i++) {
+            loginRateLimiter.tryAcquire("10.0.0.1", WINDOW_START + WINDOW_MILLIS - 1);
+        }
+
+        //When
+        var nextWindowStart = WINDOW_START + WINDOW_MILLIS;
+        var firstAllowedInNextWindow = loginRateLimiter.tryAcquire("10.0.0.1", nextWindowStart + 1_000);
+        var secondAllowedInNextWindow = loginRateLimiter.tryAcquire("10.0.0.1", nextWindowStart + 1_000);
+        var allowedInSecondHalf = loginRateLimiter.tryAcquire("10.0.0.1", nextWindowStart + WINDOW_MILLIS * 3 / 4);
+        var allowedAfterTwoWindows = loginRateLimiter.tryAcquire("10.0.0.1", nextWindowStart + WINDOW_MILLIS + 1);
+
+        //Then
+        assertTrue(firstAllowedInNextWindow);
+        assertFalse(secondAllowedInNextWindow);
+        assertTrue(allowedInSecondHalf);
+        assertTrue(allowedAfterTwoWindows);
+    }
+}
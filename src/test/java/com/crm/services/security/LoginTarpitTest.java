@@ -0,0 +1,93 @@
+package com.crm.services.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LoginTarpitTest {
+    @Mock
+    private BruteForceService bruteForceService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private LoginTarpit loginTarpit;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        loginTarpit = new LoginTarpit(bruteForceService, meterRegistry);
+        ReflectionTestUtils.setField(loginTarpit, "baseDelayMillis", 100L);
+        ReflectionTestUtils.setField(loginTarpit, "maxDelayMillis", 1000L);
+        ReflectionTestUtils.setField(loginTarpit, "maxPending", 1);
+        loginTarpit.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        loginTarpit.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should double the delay with every failed attempt up to the maximum")
+    void delayMillis_ShouldEscalate() {
+        //Given
+        when(bruteForceService.failedAttempts("user")).thenReturn(1, 2, 4, 10);
+
+        //When - Then
+        assertEquals(100, loginTarpit.delayMillis("user"));
+        assertEquals(200, loginTarpit.delayMillis("user"));
+        assertEquals(800, loginTarpit.delayMillis("user"));
+        assertEquals(1000, loginTarpit.delayMillis("user"));
+    }
+
+    @Test
+    @DisplayName("Should use the maximum delay for blocked user")
+    void delayMillis_ShouldBeMaximal_WhenUserIsBlocked() {
+        //Given
+        when(bruteForceService.isUserBlocked("blocked")).thenReturn(true);
+
+        //When - Then
+        assertEquals(1000, loginTarpit.delayMillis("blocked"));
+    }
+
+    @Test
+    @DisplayName("Should send response after the delay and right away above the pending cap")
+    void delay_ShouldCompleteLater_AndRespectCap() throws Exception {
+        //Given
+        when(bruteForceService.failedAttempts("user")).thenReturn(1);
+        var delayed = new CountDownLatch(1);
+        var immediate = new AtomicBoolean();
+
+        //When
+        loginTarpit.delay("user", delayed::countDown);
+        loginTarpit.delay("other", () -> immediate.set(true));
+
+        //Then
+        assertTrue(immediate.get());
+        assertEquals(1, loginTarpit.pending());
+        assertEquals(1, meterRegistry.get("security.login.tarpit.pending").gauge().value());
+        assertEquals(1, meterRegistry.get("security.login.tarpit.overflow").counter().count());
+        assertTrue(delayed.await(5, TimeUnit.SECONDS));
+        assertEquals(0, awaitNoPending());
+    }
+
+    private int awaitNoPending() throws InterruptedException {
+        for (int i = 0; i < 50 && loginTarpit.pending() > 0; i++) {
+            Thread.sleep(10);
+        }
+        return loginTarpit.pending();
+    }
+}
@@ -0,0 +1,34 @@
+package com.crm.services.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PasswordHashStrengthCalibratorTest {
+    private static final long TARGET_NANOS = TimeUnit.MILLISECONDS.toNanos(250);
+
+    @Test
+    @DisplayName("Should take the highest strength fitting into target time")
+    void calibrate_ShouldFitTargetTime() {
+        // 20 ms at strength 8 doubles to 40, 80 and 160 ms, 320 ms would exceed the target
+        assertEquals(11, PasswordHashStrengthCalibrator.calibrate(TimeUnit.MILLISECONDS.toNanos(20), TARGET_NANOS, 4));
+        assertEquals(8, PasswordHashStrengthCalibrator.calibrate(TimeUnit.MILLISECONDS.toNanos(200), TARGET_NANOS, 4));
+        assertEquals(6, PasswordHashStrengthCalibrator.calibrate(TimeUnit.MILLISECONDS.toNanos(1000), TARGET_NANOS, 4));
+    }
+
+    @Test
+    @DisplayName("Should keep strength within minimum and maximum")
+    void calibrate_ShouldRespectBounds() {
+        assertEquals(10, PasswordHashStrengthCalibrator.calibrate(TimeUnit.MILLISECONDS.toNanos(200), TARGET_NANOS, 10));
+        assertEquals(PasswordHashStrengthCalibrator.MAX_STRENGTH, PasswordHashStrengthCalibrator.calibrate(1, Long.MAX_VALUE, 10));
+    }
+
+    @Test
+    @DisplayName("Should use configured strength without calibration")
+    void constructor_ShouldUseConfiguredStrength() {
+        assertEquals(12, new PasswordHashStrengthCalibrator(12, 250, 10).getStrength());
+    }
+}
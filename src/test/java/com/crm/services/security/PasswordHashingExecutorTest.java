@@ -0,0 +1,193 @@
+package com.crm.services.security;
+
+import com.crm.exceptions.PasswordHashingRejectedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHashingExecutorTest {
+    private SimpleMeterRegistry meterRegistry;
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        passwordHashingExecutor = new PasswordHashingExecutor(meterRegistry);
+        ReflectionTestUtils.setField(passwordHashingExecutor, "poolSize", 1);
+        ReflectionTestUtils.setField(passwordHashingExecutor, "queueCapacity", 1);
+        ReflectionTestUtils.setField(passwordHashingExecutor, "callerPermits", 1);
+        ReflectionTestUtils.setField(passwordHashingExecutor, "callerWaitMillis", 50L);
+        passwordHashingExecutor.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        passwordHashingExecutor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should run task on the pool and record its timings")
+    void execute_ShouldReturnResultAndRecordMetrics() {
+        //When
+        var result = passwordHashingExecutor.execute("matches", () -> Thread.currentThread().getName());
+
+        //Then
+        assertTrue(result.startsWith("password-hashing-"));
+        assertEquals(1, meterRegistry.get("security.password.hashing.duration").tag("operation", "matches").timer().count());
+        assertEquals(1, meterRegistry.get("security.password.hashing.queue.wait").tag("operation", "matches").timer().count());
+    }
+
+    @Test
+    @DisplayName("Should reject task right away when pool and queue are full")
+    void execute_ShouldRejectTask_WhenQueueIsFull() throws Exception {
+        //Given
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var running = CompletableFuture.supplyAsync(() -> passwordHashingExecutor.execute("matches", () -> {
+            started.countDown();
+            awaitQuietly(release);
+            return true;
+        }));
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        var queued = CompletableFuture.supplyAsync(() -> passwordHashingExecutor.execute("matches", () -> true));
+        var queueSize = meterRegistry.get("security.password.hashing.queue.size").gauge();
+        while (queueSize.value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        //When
+        assertThrows(
+                PasswordHashingRejectedException.class,
+                () -> passwordHashingExecutor.execute("matches", () -> true)
+        );
+        release.countDown();
+
+        //Then
+        assertTrue(running.get(10, TimeUnit.SECONDS));
+        assertTrue(queued.get(10, TimeUnit.SECONDS));
+        assertEquals(1.0, meterRegistry.get("security.password.hashing.rejected").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should run task on the calling thread while the pool is saturated")
+    void executeOnCaller_ShouldNotShareThePool() throws Exception {
+        //Given
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var running = CompletableFuture.supplyAsync(() -> passwordHashingExecutor.execute("matches", () -> {
+            started.countDown();
+            awaitQuietly(release);
+            return true;
+        }));
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        var queued = CompletableFuture.supplyAsync(() -> passwordHashingExecutor.execute("matches", () -> true));
+        var queueSize = meterRegistry.get("security.password.hashing.queue.size").gauge();
+        while (queueSize.value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        //When
+        var result = passwordHashingExecutor.executeOnCaller("encode", () -> Thread.currentThread().getName());
+        release.countDown();
+
+        //Then
+        assertEquals(Thread.currentThread().getName(), result);
+        assertTrue(running.get(10, TimeUnit.SECONDS));
+        assertTrue(queued.get(10, TimeUnit.SECONDS));
+        assertEquals(1, meterRegistry.get("security.password.hashing.duration").tag("operation", "encode").timer().count());
+    }
+
+    @Test
+    @DisplayName("Should reject task on the calling thread when no caller permit is freed in time")
+    void executeOnCaller_ShouldRejectTask_WhenPermitsAreTaken() throws Exception {
+        //Given
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var running = CompletableFuture.supplyAsync(() -> passwordHashingExecutor.executeOnCaller("encode", () -> {
+            started.countDown();
+            awaitQuietly(release);
+            return true;
+        }));
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        //When
+        assertThrows(
+                PasswordHashingRejectedException.class,
+                () -> passwordHashingExecutor.executeOnCaller("encode", () -> true)
+        );
+        release.countDown();
+
+        //Then
+        assertTrue(running.get(10, TimeUnit.SECONDS));
+        assertEquals(1.0, meterRegistry.get("security.password.hashing.rejected").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should queue concurrent tasks on the calling threads instead of rejecting them")
+    void executeOnCaller_ShouldWaitForPermit_WhenCalledConcurrently() throws Exception {
+        //Given
+        ReflectionTestUtils.setField(passwordHashingExecutor, "callerWaitMillis", 10_000L);
+        var callers = 4;
+        var start = new CountDownLatch(1);
+        var encodes = new ArrayList<CompletableFuture<String>>();
+
+        //When
+        for (var i = 0; i < callers; i++) {
+            var password = "password" + i;
+            encodes.add(CompletableFuture.supplyAsync(() -> {
+                awaitQuietly(start);
+                return passwordHashingExecutor.executeOnCaller("encode", () -> {
+                    sleepQuietly(20);
+                    return password.toUpperCase();
+                });
+            }));
+        }
+        start.countDown();
+
+        //Then
+        for (var i = 0; i < callers; i++) {
+            assertEquals("PASSWORD" + i, encodes.get(i).get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(0.0, meterRegistry.get("security.password.hashing.rejected").counter().count());
+        assertEquals(callers, meterRegistry.get("security.password.hashing.queue.wait").tag("operation", "encode")
+                .timer().count());
+    }
+
+    @Test
+    @DisplayName("Should rethrow exception thrown by task")
+    void execute_ShouldRethrowTaskException() {
+        //When - Then
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> passwordHashingExecutor.execute("encode", () -> {
+                    throw new IllegalArgumentException("Invalid password");
+                })
+        );
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.crm.services.security;
+
+import com.crm.DbTestBase;
+import com.crm.repositories.UserRepo;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordUpgradeTest extends DbTestBase {
+    @Autowired
+    private AuthenticationManager authenticationManager;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    @Autowired
+    private UserRepo userRepo;
+
+    @Test
+    @DisplayName("Should upgrade hash stored without encoder id on successful authentication")
+    void authenticate_ShouldUpgradeLegacyHash() {
+        // Given
+        var rawPassword = testTrainee.getPassword();
+        testTrainee.setPassword(new BCryptPasswordEncoder(5).encode(rawPassword));
+        traineeRepo.save(testTrainee);
+
+        // When
+        authenticationManager.authenticate(
+                new UsernamePasswordAuthenticationToken(testTrainee.getUserName(), rawPassword)
+        );
+
+        // Then
+        var storedPassword = userRepo.findCredentialsByUserName(testTrainee.getUserName())
+                .orElseThrow()
+                .getPassword();
+        assertTrue(storedPassword.startsWith("{bcrypt}$2a$04$"));
+        assertTrue(passwordEncoder.matches(rawPassword, storedPassword));
+        assertFalse(passwordEncoder.upgradeEncoding(storedPassword));
+    }
+}
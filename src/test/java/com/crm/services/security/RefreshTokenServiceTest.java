@@ -0,0 +1,140 @@
+package com.crm.services.security;
+
+import com.crm.DbTestBase;
+import com.crm.exceptions.InvalidRefreshTokenException;
+import com.crm.repositories.RefreshTokenRepo;
+import com.crm.repositories.TokenEpochRepo;
+import com.crm.repositories.entities.TokenEpoch;
+import com.crm.utils.TokenDigests;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class RefreshTokenServiceTest extends DbTestBase {
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+    @Autowired
+    private RefreshTokenRepo refreshTokenRepo;
+    @Autowired
+    private TokenEpochRepo tokenEpochRepo;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    @DisplayName("Should rotate refresh token and keep only its fingerprint")
+    void rotate_ShouldIssueNextToken() {
+        // Given
+        var issued = refreshTokenService.issue("testUser");
+
+        // When
+        var rotated = refreshTokenService.rotate(issued.getToken());
+
+        // Then
+        assertEquals("testUser", rotated.getOwnerUserName());
+        assertNotEquals(issued.getToken(), rotated.getToken());
+        assertTrue(refreshTokenRepo.findByFingerprint(TokenDigests.fingerprint(rotated.getToken())).isPresent());
+        assertTrue(refreshTokenRepo.findAll()
+                .stream()
+                .noneMatch(stored -> stored.getFingerprint().equals(issued.getToken())));
+    }
+
+    @Test
+    @DisplayName("Should revoke the whole family when a used refresh token is presented again")
+    void rotate_ShouldRevokeFamily_WhenTokenIsReused() {
+        // Given
+        var issued = refreshTokenService.issue("testUser");
+        var rotated = refreshTokenService.rotate(issued.getToken());
+
+        // When
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(issued.getToken()));
+
+        // Then
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(rotated.getToken()));
+    }
+
+    @Test
+    @DisplayName("Should not report reuse when a refresh token revoked on logout is presented")
+    void rotate_ShouldNotReportReuse_WhenTokenIsRevoked() {
+        // Given
+        var reuseCounter = meterRegistry.counter("security.refresh_token.reuse_detected");
+        var reusesBefore = reuseCounter.count();
+        var issued = refreshTokenService.issue("testUser");
+        var rotated = refreshTokenService.rotate(issued.getToken());
+        refreshTokenService.revoke(rotated.getToken(), "testUser");
+
+        // When
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(rotated.getToken()));
+
+        // Then
+        assertEquals(reusesBefore, reuseCounter.count());
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(issued.getToken()));
+        assertEquals(reusesBefore + 1, reuseCounter.count());
+    }
+
+    @Test
+    @DisplayName("Should reject revoked, expired and unknown refresh tokens")
+    void rotate_ShouldRejectInvalidTokens() {
+        // Given
+        var revoked = refreshTokenService.issue("testUser");
+        refreshTokenService.revoke(revoked.getToken());
+        var expired = refreshTokenService.issue("testUser");
+        var stored = refreshTokenRepo.findByFingerprint(TokenDigests.fingerprint(expired.getToken())).orElseThrow();
+        stored.setExpiresAt(Instant.now().minusSeconds(1));
+        refreshTokenRepo.save(stored);
+
+        // When - Then
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(revoked.getToken()));
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(expired.getToken()));
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate("unknown"));
+    }
+
+    @Test
+    @DisplayName("Should reject refresh token issued before all tokens of its owner were revoked")
+    void rotate_ShouldRejectToken_WhenIssuedBeforeEpochChanged() {
+        // Given
+        var issued = refreshTokenService.issue("refreshEpochUser");
+        tokenEpochRepo.save(new TokenEpoch("refreshEpochUser", 1));
+
+        // When - Then
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(issued.getToken()));
+        assertEquals(1, refreshTokenRepo.findByFingerprint(TokenDigests.fingerprint(refreshTokenService.issue("refreshEpochUser").getToken()))
+                .orElseThrow()
+                .getEpoch());
+    }
+
+    @Test
+    @DisplayName("Should revoke refresh token only on behalf of its owner")
+    void revoke_ShouldIgnoreToken_WhenOwnedByAnotherUser() {
+        // Given
+        var issued = refreshTokenService.issue("testUser");
+
+        // When
+        refreshTokenService.revoke(issued.getToken(), "anotherUser");
+
+        // Then
+        var rotated = refreshTokenService.rotate(issued.getToken());
+        refreshTokenService.revoke(rotated.getToken(), "testUser");
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(rotated.getToken()));
+    }
+
+    @Test
+    @DisplayName("Sweep should survive unavailable DB")
+    void sweepExpiredTokens_ShouldNotFail_WhenDbIsUnavailable() {
+        // Given
+        var unavailableRepo = mock(RefreshTokenRepo.class);
+        when(unavailableRepo.deleteExpired(any())).thenThrow(new DataAccessResourceFailureException("Connection refused"));
+        var service = new RefreshTokenService(unavailableRepo, tokenEpochRepo, meterRegistry);
+
+        // When - Then
+        assertDoesNotThrow(service::sweepExpiredTokens);
+        verify(unavailableRepo).deleteExpired(any());
+    }
+}
@@ -0,0 +1,128 @@
+package com.crm.services.security;
+
+import com.crm.DbTestBase;
+import com.crm.exceptions.InvalidRefreshTokenException;
+import com.crm.repositories.TokenEpochRepo;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenEpochServiceTest extends DbTestBase {
+    @Autowired
+    private TokenEpochService tokenEpochService;
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+    @Autowired
+    private TokenEpochRepo tokenEpochRepo;
+
+    @Test
+    @DisplayName("Should start with the initial epoch and increment it on every revocation")
+    void revokeAll_ShouldIncrementEpoch() {
+        // Given
+        var initial = tokenEpochService.currentEpoch("epochUser");
+
+        // When
+        tokenEpochService.revokeAll("epochUser");
+        var afterFirst = tokenEpochService.currentEpoch("epochUser");
+        tokenEpochService.revokeAll("epochUser");
+        var afterSecond = tokenEpochService.currentEpoch("epochUser");
+
+        // Then
+        assertEquals(0, initial);
+        assertEquals(1, afterFirst);
+        assertEquals(2, afterSecond);
+        assertEquals(0, tokenEpochService.currentEpoch("otherUser"));
+    }
+
+    @Test
+    @DisplayName("Should revoke tokens issued before revocation and keep tokens issued after it")
+    void isRevoked_ShouldCompareWithCurrentEpoch() {
+        // Given
+        var issuedBefore = tokenEpochService.currentEpoch("revokedUser");
+
+        // When
+        tokenEpochService.revokeAll("revokedUser");
+        var issuedAfter = tokenEpochService.currentEpoch("revokedUser");
+
+        // Then
+        assertTrue(tokenEpochService.isRevoked("revokedUser", issuedBefore));
+        assertFalse(tokenEpochService.isRevoked("revokedUser", issuedAfter));
+    }
+
+    @Test
+    @DisplayName("Should read the stored epoch when a revocation made by another node is not cached yet")
+    void storedEpoch_ShouldBypassCache() {
+        // Given
+        var cached = tokenEpochService.currentEpoch("remoteRevokedUser");
+        tokenEpochRepo.insert("remoteRevokedUser");
+        tokenEpochRepo.increment("remoteRevokedUser");
+
+        // When
+        var stored = tokenEpochService.storedEpoch("remoteRevokedUser");
+
+        // Then
+        assertEquals(0, cached);
+        assertEquals(1, stored);
+        assertFalse(tokenEpochService.isRevoked("remoteRevokedUser", stored));
+    }
+
+    @Test
+    @DisplayName("Should revoke refresh tokens of the user")
+    void revokeAll_ShouldRevokeRefreshTokens() {
+        // Given
+        var refreshToken = refreshTokenService.issue("refreshUser");
+        var otherRefreshToken = refreshTokenService.issue("otherUser");
+
+        // When
+        tokenEpochService.revokeAll("refreshUser");
+
+        // Then
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(refreshToken.getToken()));
+        assertDoesNotThrow(() -> refreshTokenService.rotate(otherRefreshToken.getToken()));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("Should count every concurrent first revocation of the user")
+    void revokeAll_ShouldNotFail_WhenFirstRevocationsRace() throws Exception {
+        // Given
+        var threads = 8;
+        var executor = Executors.newFixedThreadPool(threads);
+        var start = new CountDownLatch(1);
+        var revocations = new CompletableFuture<?>[threads];
+
+        // When
+        try {
+            for (var i = 0; i < threads; i++) {
+                revocations[i] = CompletableFuture.runAsync(() -> {
+                    awaitQuietly(start);
+                    tokenEpochService.revokeAll("racingEpochUser");
+                }, executor);
+            }
+            start.countDown();
+            CompletableFuture.allOf(revocations).get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Then
+        assertEquals(threads, tokenEpochRepo.findEpochByUserName("racingEpochUser").orElseThrow());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.crm.services.security;
+
+import com.crm.CrmApplication;
+import com.crm.repositories.RevokedTokenRepo;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs two application contexts, standing for two nodes of the cluster, against one shared in-memory DB.
+ */
+class TokenRevocationStoreTest {
+    private static ConfigurableApplicationContext firstNode;
+    private static ConfigurableApplicationContext secondNode;
+
+    private TokenRevocationStore firstStore;
+    private TokenRevocationStore secondStore;
+
+    @BeforeAll
+    static void startNodes() {
+        firstNode = startNode();
+        secondNode = startNode();
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        secondNode.close();
+        firstNode.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        firstStore = firstNode.getBean(TokenRevocationStore.class);
+        secondStore = secondNode.getBean(TokenRevocationStore.class);
+    }
+
+    @Test
+    @DisplayName("Token revoked on one node should be rejected by another node after its poll")
+    void revoke_ShouldBeVisibleOnOtherNodeAfterPoll() {
+        //Given
+        var token = randomToken();
+        var expiresAt = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(60);
+
+        //When
+        firstStore.revoke(token, expiresAt);
+        var revokedOnSecondBeforePoll = secondStore.isRevoked(token);
+        secondStore.pollRevocations();
+
+        //Then
+        assertTrue(firstStore.isRevoked(token));
+        assertFalse(revokedOnSecondBeforePoll);
+        assertTrue(secondStore.isRevoked(token));
+        assertFalse(secondStore.isRevoked(randomToken()));
+    }
+
+    @Test
+    @DisplayName("Token revoked on one node should stay revoked when its signature is re-encoded")
+    void revoke_ShouldRejectReencodedSignature() {
+        //Given
+        var token = "eyJhbGciOiJIUzI1NiJ9.eyJzdWIiOiJ0ZXN0VXNlciJ9." + UUID.randomUUID().toString().replace("-", "")
+                + "AAAAAAAAAAA";
+        var expiresAt = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(60);
+
+        //When
+        firstStore.revoke(token, expiresAt);
+        secondStore.pollRevocations();
+
+        //Then
+        assertTrue(firstStore.isRevoked(token + "="));
+        assertTrue(secondStore.isRevoked(token.substring(0, token.length() - 1) + "B"));
+    }
+
+    @Test
+    @DisplayName("Revoking the same token on both nodes should keep it revoked")
+    void revoke_ShouldIgnoreRepeatedRevocation() {
+        //Given
+        var token = randomToken();
+        var expiresAt = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(60);
+
+        //When
+        firstStore.revoke(token, expiresAt);
+        secondStore.revoke(token, expiresAt);
+
+        //Then
+        assertTrue(firstStore.isRevoked(token));
+        assertTrue(secondStore.isRevoked(token));
+    }
+
+    @Test
+    @DisplayName("New node should load tokens revoked before its start")
+    void init_ShouldLoadRevokedTokens() {
+        //Given
+        var token = randomToken();
+        firstStore.revoke(token, System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(60));
+
+        //When
+        try (var thirdNode = startNode()) {
+            //Then
+            assertTrue(thirdNode.getBean(TokenRevocationStore.class).isRevoked(token));
+        }
+    }
+
+    @Test
+    @DisplayName("Expired tokens should be removed from DB and local copies")
+    void removeExpiredTokens_ShouldDeleteExpiredTokens() {
+        //Given
+        var token = randomToken();
+        var expiresAt = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(1);
+        firstStore.revoke(token, expiresAt);
+        secondStore.pollRevocations();
+
+        //When
+        firstStore.removeExpiredTokens(expiresAt);
+        secondStore.removeExpiredTokens(expiresAt);
+
+        //Then
+        assertFalse(firstStore.isRevoked(token));
+        assertFalse(secondStore.isRevoked(token));
+        assertTrue(firstNode.getBean(RevokedTokenRepo.class).findAll()
+                .stream()
+                .noneMatch(revokedToken -> revokedToken.getExpiresAt().toEpochMilli() <= expiresAt));
+    }
+
+    @Test
+    @DisplayName("Tokens that are still revoked should stay revoked after the sweep rebuilds the prefilter")
+    void removeExpiredTokens_ShouldKeepRevokedTokens() {
+        //Given
+        var now = System.currentTimeMillis();
+        var expiring = new ArrayList<String>();
+        var revoked = new ArrayList<String>();
+        for (var i = 0; i < 500; i++) {
+            expiring.add(randomToken());
+            revoked.add(randomToken());
+        }
+        expiring.forEach(token -> firstStore.revoke(token, now + TimeUnit.MINUTES.toMillis(1)));
+        revoked.forEach(token -> firstStore.revoke(token, now + TimeUnit.MINUTES.toMillis(60)));
+        secondStore.pollRevocations();
+
+        //When
+        firstStore.removeExpiredTokens(now + TimeUnit.MINUTES.toMillis(1));
+        secondStore.removeExpiredTokens(now + TimeUnit.MINUTES.toMillis(1));
+
+        //Then
+        assertTrue(revoked.stream().allMatch(firstStore::isRevoked));
+        assertTrue(revoked.stream().allMatch(secondStore::isRevoked));
+        assertTrue(expiring.stream().noneMatch(firstStore::isRevoked));
+        assertTrue(expiring.stream().noneMatch(secondStore::isRevoked));
+    }
+
+    private static ConfigurableApplicationContext startNode() {
+        return new SpringApplicationBuilder(CrmApplication.class)
+                .profiles("test")
+                .run(
+                        "--server.port=0",
+                        "--spring.docker.compose.enabled=false",
+                        "--spring.datasource.url=jdbc:h2:mem:revocation;DB_CLOSE_DELAY=-1",
+                        "--spring.security.token-blacklist.poll-interval-ms=3600000",
+                        "--spring.security.token-blacklist.sweep-interval-ms=3600000"
+                );
+    }
+
+    private static String randomToken() {
+        return UUID.randomUUID().toString();
+    }
+}
@@ -0,0 +1,81 @@
+package com.crm.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DigestBloomFilterTest {
+    private static final int EXPECTED_INSERTIONS = 10_000;
+
+    @Test
+    @DisplayName("Should find every digest that was put and reject most others")
+    void mightContain_ShouldFindEveryPutDigest() {
+        //Given
+        var filter = new DigestBloomFilter(EXPECTED_INSERTIONS, 0.01);
+        var inserted = randomDigests(EXPECTED_INSERTIONS);
+        var others = randomDigests(EXPECTED_INSERTIONS);
+
+        //When
+        inserted.forEach(filter::put);
+
+        //Then
+        assertTrue(inserted.stream().allMatch(filter::mightContain));
+        assertTrue(others.stream().filter(filter::mightContain).count() < EXPECTED_INSERTIONS * 0.03);
+    }
+
+    @Test
+    @DisplayName("Should find every digest that was put by concurrent threads")
+    void put_ShouldNotLoseDigests_WhenCalledConcurrently() throws Exception {
+        //Given
+        var threads = 8;
+        var filter = new DigestBloomFilter(EXPECTED_INSERTIONS, 0.01);
+        var executor = Executors.newFixedThreadPool(threads);
+        var start = new CountDownLatch(1);
+        var batches = new ArrayList<List<byte[]>>();
+        var puts = new CompletableFuture<?>[threads];
+
+        //When
+        try {
+            for (var i = 0; i < threads; i++) {
+                var batch = randomDigests(EXPECTED_INSERTIONS / threads);
+                batches.add(batch);
+                puts[i] = CompletableFuture.runAsync(() -> {
+                    awaitQuietly(start);
+                    batch.forEach(filter::put);
+                }, executor);
+            }
+            start.countDown();
+            CompletableFuture.allOf(puts).get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        //Then
+        assertTrue(batches.stream().flatMap(List::stream).allMatch(filter::mightContain));
+    }
+
+    private static List<byte[]> randomDigests(int count) {
+        var digests = new ArrayList<byte[]>(count);
+        for (var i = 0; i < count; i++) {
+            digests.add(TokenDigests.digest(UUID.randomUUID().toString()));
+        }
+        return digests;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.crm.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenDigestsTest {
+    private static final String TOKEN = "eyJhbGciOiJIUzI1NiJ9.eyJzdWIiOiJ0ZXN0VXNlciJ9."
+            + Base64.getUrlEncoder().withoutPadding().encodeToString(new byte[32]);
+
+    @Test
+    @DisplayName("Should give every encoding of the same signature the digest of the canonical token")
+    void digest_ShouldIgnoreSignatureEncoding() {
+        //Given
+        var withTrailingBits = reencodeLastCharacter(TOKEN);
+        var withPadding = TOKEN + "=";
+
+        //When - Then
+        assertTrue(TokenDigests.isCanonical(TOKEN));
+        assertFalse(TokenDigests.isCanonical(withTrailingBits));
+        assertFalse(TokenDigests.isCanonical(withPadding));
+        assertEquals(TOKEN, TokenDigests.canonical(withTrailingBits));
+        assertEquals(TokenDigests.fingerprint(TOKEN), TokenDigests.fingerprint(withTrailingBits));
+        assertEquals(TokenDigests.fingerprint(TOKEN), TokenDigests.fingerprint(withPadding));
+    }
+
+    @Test
+    @DisplayName("Should keep opaque tokens and undecodable signatures as they are")
+    void canonical_ShouldReturnTokenAsIs_WhenSignatureCanNotBeDecoded() {
+        //Given
+        var opaque = "opaque-refresh-token";
+        var undecodable = "header.payload.extra";
+
+        //When - Then
+        assertSame(opaque, TokenDigests.canonical(opaque));
+        assertSame(undecodable, TokenDigests.canonical(undecodable));
+    }
+
+    /**
+     * Flips an unused trailing bit of a 32 bytes signature, the result decodes to the same bytes.
+     */
+    private static String reencodeLastCharacter(String token) {
+        var alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        var last = alphabet.indexOf(token.charAt(token.length() - 1));
+        return token.substring(0, token.length() - 1) + alphabet.charAt(last ^ 1);
+    }
+}